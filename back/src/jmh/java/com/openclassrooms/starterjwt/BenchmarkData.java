@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+
+/**
+ * Datasets shared by the benchmarks. Every method draws from a generator with a
+ * fixed seed, so two runs measure exactly the same data.
+ */
+public final class BenchmarkData {
+  public static final long SEED = 20231015L;
+
+  private static final String[] FIRST_NAMES = { "Margot", "Hélène", "Alice", "Louis", "Camille", "Hugo" };
+
+  private static final String[] LAST_NAMES = { "DELAHAYE", "THIERCELIN", "MARTIN", "BERNARD", "PETIT", "ROUX" };
+
+  private static final LocalDateTime CREATED_AT = LocalDateTime.of(2023, 1, 1, 9, 0);
+
+  private BenchmarkData() {
+  }
+
+  public static String email(long id) {
+    return "user" + id + "@studio.com";
+  }
+
+  /**
+   * Users with ids 1..count, every tenth one being an admin.
+   */
+  public static List<User> users(int count) {
+    Random random = new Random(SEED);
+    List<User> users = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      users.add(User.builder()
+          .id(id)
+          .email(email(id))
+          .firstName(pick(random, FIRST_NAMES))
+          .lastName(pick(random, LAST_NAMES))
+          .password("$2a$10$" + Long.toHexString(random.nextLong()))
+          .admin(id % 10 == 0)
+          .createdAt(CREATED_AT)
+          .updatedAt(CREATED_AT)
+          .build());
+    }
+    return users;
+  }
+
+  public static List<Teacher> teachers(int count) {
+    Random random = new Random(SEED);
+    List<Teacher> teachers = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      teachers.add(Teacher.builder()
+          .id(id)
+          .firstName(pick(random, FIRST_NAMES))
+          .lastName(pick(random, LAST_NAMES))
+          .createdAt(CREATED_AT)
+          .updatedAt(CREATED_AT)
+          .build());
+    }
+    return teachers;
+  }
+
+  /**
+   * Sessions spread over the given teachers, each with up to participants
+   * distinct attendees drawn from the given users.
+   */
+  public static List<Session> sessions(int count, List<Teacher> teachers, List<User> users, int participants) {
+    Random random = new Random(SEED);
+    List<Session> sessions = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      int first = random.nextInt(users.size());
+      List<User> attendees = new ArrayList<>(participants);
+      for (int i = 0; i < participants && i < users.size(); i++) {
+        attendees.add(users.get((first + i) % users.size()));
+      }
+      sessions.add(Session.builder()
+          .id(id)
+          .name("Session " + id)
+          .date(new Date(1_700_000_000_000L + random.nextInt(365) * 86_400_000L))
+          .description(description(random))
+          .capacity(participants + random.nextInt(10) + 1)
+          .teacher(teachers.get(random.nextInt(teachers.size())))
+          .users(attendees)
+          .createdAt(CREATED_AT)
+          .updatedAt(CREATED_AT)
+          .build());
+    }
+    return sessions;
+  }
+
+  public static List<SessionDto> sessionDtos(List<Session> sessions) {
+    List<SessionDto> dtos = new ArrayList<>(sessions.size());
+    for (Session session : sessions) {
+      List<Long> userIds = new ArrayList<>(session.getUsers().size());
+      session.getUsers().forEach(user -> userIds.add(user.getId()));
+      dtos.add(new SessionDto(
+          session.getId(),
+          session.getName(),
+          session.getDate(),
+          session.getTeacher().getId(),
+          session.getDescription(),
+          session.getCapacity(),
+          userIds,
+          session.getCreatedAt(),
+          session.getUpdatedAt()));
+    }
+    return dtos;
+  }
+
+  private static String description(Random random) {
+    StringBuilder description = new StringBuilder();
+    int words = 20 + random.nextInt(40);
+    for (int i = 0; i < words; i++) {
+      description.append(i == 0 ? "" : " ").append(pick(random, LAST_NAMES).toLowerCase());
+    }
+    return description.toString();
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}
@@ -0,0 +1,128 @@
+package com.openclassrooms.starterjwt;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.security.jwt.RateLimitedLog;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/**
+ * Cost on the calling thread of the request-path log lines, before and after
+ * the switch to summaries, async appenders and rate-limited auth failures.
+ * The "before" methods reproduce the former calls: a synchronous appender, the
+ * DTO and the session with its attendees dumped through toString, every bad
+ * token at ERROR. Lines are encoded with Spring Boot's console pattern and
+ * written to a null stream, so the numbers leave out the console itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+  private static final String PATTERN =
+      "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p ${PID:- } --- [%15.15t] %-40.40logger{39} : %m%n";
+
+  private static final String TOKEN_ERROR = "JWT strings must contain exactly 2 period characters. Found: 0";
+
+  private LoggerContext context;
+
+  private Logger syncLogger;
+
+  private Logger asyncLogger;
+
+  private RateLimitedLog authFailures;
+
+  private Session session;
+
+  private SessionDto sessionDto;
+
+  @Setup
+  public void setUp() {
+    context = new LoggerContext();
+
+    syncLogger = context.getLogger("sync");
+    ((ch.qos.logback.classic.Logger) syncLogger).addAppender(nullAppender());
+
+    AsyncAppender async = new AsyncAppender();
+    async.setContext(context);
+    async.setQueueSize(2048);
+    async.setIncludeCallerData(false);
+    async.addAppender(nullAppender());
+    async.start();
+    asyncLogger = context.getLogger("async");
+    ((ch.qos.logback.classic.Logger) asyncLogger).addAppender(async);
+
+    authFailures = new RateLimitedLog(asyncLogger, 10);
+
+    List<Session> sessions = BenchmarkData.sessions(1, BenchmarkData.teachers(1), BenchmarkData.users(100), 20);
+    session = sessions.get(0);
+    sessionDto = BenchmarkData.sessionDtos(sessions).get(0);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.stop();
+  }
+
+  @Benchmark
+  public void createdSessionBefore() {
+    syncLogger.info("{}", sessionDto);
+    // The former Session.toString, attendees included
+    syncLogger.info("{}, users={}", session, session.getUsers());
+  }
+
+  @Benchmark
+  public void createdSessionAfter() {
+    asyncLogger.info("Created session {} on {} with teacher {} and {} participants",
+        session.getId(), session.getDate(), sessionDto.getTeacher_id(), sessionDto.getUsers().size());
+  }
+
+  @Benchmark
+  public void invalidTokenBefore() {
+    syncLogger.error("Invalid JWT token: {}", TOKEN_ERROR);
+  }
+
+  @Benchmark
+  public void invalidTokenAfter() {
+    authFailures.warn("Invalid JWT token", TOKEN_ERROR);
+  }
+
+  private OutputStreamAppender<ILoggingEvent> nullAppender() {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern(PATTERN);
+    encoder.start();
+
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(OutputStream.nullOutputStream());
+    appender.start();
+    return appender;
+  }
+}
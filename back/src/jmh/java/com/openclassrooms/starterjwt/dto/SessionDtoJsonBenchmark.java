@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.dto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.openclassrooms.starterjwt.BenchmarkData;
+
+/**
+ * Serialization cost of a session list response. The writer is built the way
+ * Spring builds the one behind the REST controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionDtoJsonBenchmark {
+  @Param({ "100", "10000" })
+  public int sessions;
+
+  @Param({ "0", "20" })
+  public int participants;
+
+  private ObjectWriter writer;
+
+  private List<SessionDto> dtos;
+
+  @Setup
+  public void setUp() {
+    dtos = BenchmarkData.sessionDtos(BenchmarkData.sessions(sessions,
+        BenchmarkData.teachers(50), BenchmarkData.users(1000), participants));
+    writer = Jackson2ObjectMapperBuilder.json().build()
+        .writerFor(new TypeReference<List<SessionDto>>() { });
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return writer.writeValueAsBytes(dtos);
+  }
+}
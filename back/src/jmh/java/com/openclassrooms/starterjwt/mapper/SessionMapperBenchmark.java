@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.mapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.starterjwt.BenchmarkData;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+
+/**
+ * Time to map a whole session list in each direction. The services behind the
+ * mapper answer from in-memory maps, so only the mapping itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionMapperBenchmark {
+  @Param({ "100", "10000" })
+  public int sessions;
+
+  @Param({ "0", "20" })
+  public int participants;
+
+  private SessionMapper sessionMapper;
+
+  private List<Session> entities;
+
+  private List<SessionDto> dtos;
+
+  @Setup
+  public void setUp() {
+    List<Teacher> teachers = BenchmarkData.teachers(50);
+    List<User> users = BenchmarkData.users(1000);
+    entities = BenchmarkData.sessions(sessions, teachers, users, participants);
+    dtos = BenchmarkData.sessionDtos(entities);
+
+    Map<Long, Teacher> teachersById = teachers.stream()
+        .collect(Collectors.toMap(Teacher::getId, Function.identity()));
+    Map<Long, User> usersById = users.stream()
+        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+    sessionMapper = new SessionMapperImpl();
+    sessionMapper.teacherService = new TeacherService(null) {
+      @Override
+      public Teacher getReference(Long id) {
+        return teachersById.get(id);
+      }
+    };
+    sessionMapper.userService = new UserService(null, null, null) {
+      @Override
+      public List<User> findAllById(Collection<Long> ids) {
+        return ids.stream().map(usersById::get).collect(Collectors.toList());
+      }
+    };
+  }
+
+  @Benchmark
+  public List<SessionDto> toDto() {
+    return sessionMapper.toDto(entities);
+  }
+
+  @Benchmark
+  public List<Session> toEntity() {
+    return sessionMapper.toEntity(dtos);
+  }
+}
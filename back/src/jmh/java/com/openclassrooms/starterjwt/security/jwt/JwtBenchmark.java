@@ -0,0 +1,123 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Token issue and verify throughput. verifyRebuildingParser reproduces the former
+ * behaviour, where the key was derived and the parser built on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+  private static final String SECRET = "uqiG1u0YKqcwQCXubVH86O9vYYX7taGMhftIxCQtOLsFPCmw6ttym3HEYxC4vi7AFfJBBuDd3HCheIUQkZT9Xc";
+
+  @Param({ "HS512", "RS256", "ES256" })
+  public String algorithm;
+
+  private JwtUtils jwtUtils;
+
+  private Authentication authentication;
+
+  private String token;
+
+  private KeyPair keyPair;
+
+  @Setup
+  public void setUp() throws IOException, NoSuchAlgorithmException {
+    SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.valueOf(algorithm);
+    jwtUtils = new JwtUtils();
+    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+    ReflectionTestUtils.setField(jwtUtils, "jwtAlgorithm", signatureAlgorithm);
+    if (!signatureAlgorithm.isHmac()) {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance(signatureAlgorithm.isRsa() ? "RSA" : "EC");
+      generator.initialize(signatureAlgorithm.isRsa() ? 2048 : 256);
+      keyPair = generator.generateKeyPair();
+      ReflectionTestUtils.setField(jwtUtils, "jwtPrivateKey",
+          pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+      ReflectionTestUtils.setField(jwtUtils, "jwtPublicKey",
+          pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+    }
+    jwtUtils.init();
+
+    UserDetailsImpl user = UserDetailsImpl.builder()
+        .id(1L)
+        .username("yoga@studio.com")
+        .firstName("Admin")
+        .lastName("Admin")
+        .admin(true)
+        .build();
+    authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    token = jwtUtils.generateJwtToken(authentication);
+  }
+
+  @Benchmark
+  public String issue() {
+    return jwtUtils.generateJwtToken(authentication);
+  }
+
+  @Benchmark
+  public Claims verify() {
+    return jwtUtils.parseClaims(token);
+  }
+
+  @Benchmark
+  public boolean validate() {
+    return jwtUtils.validateJwtToken(token);
+  }
+
+  @Benchmark
+  public Claims verifyRebuildingParser() {
+    SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.valueOf(algorithm);
+    return Jwts.parserBuilder()
+        .setSigningKey(signatureAlgorithm.isHmac()
+            ? JwtKeys.hmacKey(SECRET, signatureAlgorithm)
+            : keyPair.getPublic())
+        .build()
+        .parseClaimsJws(token)
+        .getBody();
+  }
+
+  private static FileSystemResource pem(String type, byte[] der) throws IOException {
+    Path file = Files.createTempFile("jwt", ".pem");
+    file.toFile().deleteOnExit();
+    String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+    Files.write(file, ("-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n")
+        .getBytes(StandardCharsets.US_ASCII));
+    return new FileSystemResource(file);
+  }
+}
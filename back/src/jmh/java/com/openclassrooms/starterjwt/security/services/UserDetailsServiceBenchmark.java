@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.openclassrooms.starterjwt.BenchmarkData;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+/**
+ * Login lookup through the real repository and transaction setup, against an
+ * in-memory H2 database in MySQL mode seeded with the benchmark users. The
+ * second-level cache is off, so every call reaches the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsServiceBenchmark {
+  private static final int LOOKUPS = 4096;
+
+  @Param({ "1000", "100000" })
+  public int users;
+
+  private ConfigurableApplicationContext context;
+
+  private UserDetailsServiceImpl userDetailsService;
+
+  private String[] emails;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BenchmarkContext.class)
+        .web(WebApplicationType.NONE)
+        .bannerMode(Banner.Mode.OFF)
+        .logStartupInfo(false)
+        .properties(
+            "spring.config.name=jmh",
+            "spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=none",
+            "spring.jpa.hibernate.naming.physical-strategy=org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl",
+            "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+            "spring.jpa.properties.hibernate.cache.use_query_cache=false")
+        .run();
+    seed(new JdbcTemplate(context.getBean(DataSource.class)), BenchmarkData.users(users));
+    userDetailsService = context.getBean(UserDetailsServiceImpl.class);
+
+    Random random = new Random(BenchmarkData.SEED);
+    emails = new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      emails[i] = BenchmarkData.email(random.nextInt(users) + 1);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserDetails loadUserByUsername() {
+    return userDetailsService.loadUserByUsername(emails[next++ & (LOOKUPS - 1)]);
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate, List<User> users) {
+    jdbcTemplate.execute("DROP TABLE IF EXISTS USERS");
+    jdbcTemplate.execute("CREATE TABLE USERS ("
+        + "id INT PRIMARY KEY AUTO_INCREMENT, "
+        + "last_name VARCHAR(40), "
+        + "first_name VARCHAR(40), "
+        + "admin BOOLEAN NOT NULL DEFAULT false, "
+        + "email VARCHAR(255) UNIQUE, "
+        + "password VARCHAR(255), "
+        + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+        + "updated_at DATETIME DEFAULT CURRENT_TIMESTAMP)");
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO USERS (id, last_name, first_name, admin, email, password, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        users.stream()
+            .map(user -> new Object[] {
+                user.getId(), user.getLastName(), user.getFirstName(), user.isAdmin(), user.getEmail(),
+                user.getPassword(), Timestamp.valueOf(user.getCreatedAt()), Timestamp.valueOf(user.getUpdatedAt()) })
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * Just the persistence beans the service needs, without the web layer and
+   * without reading application.properties.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ImportAutoConfiguration({
+      DataSourceAutoConfiguration.class,
+      HibernateJpaAutoConfiguration.class,
+      TransactionAutoConfiguration.class })
+  @EntityScan(basePackageClasses = User.class)
+  @EnableJpaRepositories(basePackageClasses = UserRepository.class,
+      includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = UserRepository.class))
+  @Import(UserDetailsServiceImpl.class)
+  static class BenchmarkContext {
+  }
+}
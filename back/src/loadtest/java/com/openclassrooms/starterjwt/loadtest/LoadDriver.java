@@ -0,0 +1,250 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed-loop load driver for a server started with the loadtest profile. Each
+ * worker logs in as its own generated user, then repeats: list the sessions,
+ * join a random one, leave it again, logging in anew every loginEvery rounds.
+ * Prints throughput and latency percentiles per endpoint, warm-up excluded.
+ *
+ * <p>Settings are system properties: loadtest.baseUrl, loadtest.threads,
+ * loadtest.warmupSeconds, loadtest.durationSeconds, loadtest.loginEvery,
+ * loadtest.password and loadtest.seed.
+ */
+public class LoadDriver {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+
+  private final int threads = Integer.getInteger("loadtest.threads", 20);
+
+  private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+
+  private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+
+  private final int loginEvery = Integer.getInteger("loadtest.loginEvery", 10);
+
+  private final String password = System.getProperty("loadtest.password", "test!1234");
+
+  private final long seed = Long.getLong("loadtest.seed", 42L);
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+
+  public static void main(String[] args) throws Exception {
+    new LoadDriver().run();
+  }
+
+  private void run() throws Exception {
+    System.out.printf("Driving %s with %d workers: %d s warm-up, %d s measured%n",
+        baseUrl, threads, warmupSeconds, durationSeconds);
+
+    long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+    long measureTo = measureFrom + durationSeconds * 1_000_000_000L;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Map<String, Recorder>>> workers = new ArrayList<>();
+    for (int worker = 1; worker <= threads; worker++) {
+      int user = worker;
+      workers.add(executor.submit(() -> new Worker(user, measureFrom, measureTo).call()));
+    }
+
+    Map<String, Recorder> total = new LinkedHashMap<>();
+    for (Future<Map<String, Recorder>> worker : workers) {
+      worker.get().forEach((operation, recorder) -> total.merge(operation, recorder, Recorder::merge));
+    }
+    executor.shutdown();
+    report(total);
+  }
+
+  private void report(Map<String, Recorder> recorders) {
+    System.out.printf("%n%-14s %9s %8s %10s %9s %9s %9s %9s %9s  %s%n",
+        "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+    recorders.forEach((operation, recorder) -> {
+      long[] latencies = recorder.sorted();
+      System.out.printf("%-14s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+          operation,
+          latencies.length,
+          recorder.errors,
+          latencies.length / (double) durationSeconds,
+          percentile(latencies, 50),
+          percentile(latencies, 90),
+          percentile(latencies, 99),
+          percentile(latencies, 99.9),
+          latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+          recorder.statuses);
+    });
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+
+  private class Worker {
+    private final String email;
+
+    private final long measureFrom;
+
+    private final long measureTo;
+
+    private final Random random;
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+
+    private String token;
+
+    private long userId;
+
+    Worker(int user, long measureFrom, long measureTo) {
+      this.email = "user" + user + "@studio.com";
+      this.measureFrom = measureFrom;
+      this.measureTo = measureTo;
+      this.random = new Random(seed + user);
+    }
+
+    Map<String, Recorder> call() throws InterruptedException {
+      long round = 0;
+      long[] sessionIds = new long[0];
+      while (System.nanoTime() < measureTo) {
+        if (round++ % loginEvery == 0 || token == null) {
+          login();
+          if (token == null) {
+            continue;
+          }
+        }
+
+        HttpResponse<String> sessions = send("session.list", authorized("/api/session").GET());
+        if (sessions != null && sessions.statusCode() == 200) {
+          sessionIds = ids(sessions.body());
+        }
+        if (sessionIds.length == 0) {
+          continue;
+        }
+
+        long sessionId = sessionIds[random.nextInt(sessionIds.length)];
+        String participation = "/api/session/" + sessionId + "/participate/" + userId;
+        send("participate", authorized(participation).POST(HttpRequest.BodyPublishers.noBody()));
+        send("unparticipate", authorized(participation).DELETE());
+      }
+      return recorders;
+    }
+
+    private void login() throws InterruptedException {
+      String body = "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+      HttpResponse<String> response = send("auth.login", HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(body)));
+      if (response == null || response.statusCode() != 200) {
+        token = null;
+        return;
+      }
+      try {
+        JsonNode json = MAPPER.readTree(response.body());
+        token = json.get("token").asText();
+        userId = json.get("id").asLong();
+      } catch (IOException e) {
+        token = null;
+      }
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+      return HttpRequest.newBuilder(URI.create(baseUrl + path))
+          .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(String operation, HttpRequest.Builder request) throws InterruptedException {
+      long start = System.nanoTime();
+      HttpResponse<String> response;
+      try {
+        response = client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+      } catch (IOException e) {
+        response = null;
+      }
+      long end = System.nanoTime();
+
+      if (start >= measureFrom && end <= measureTo) {
+        recorders.computeIfAbsent(operation, key -> new Recorder())
+            .record(end - start, response == null ? "io" : String.valueOf(response.statusCode()));
+      }
+      return response;
+    }
+  }
+
+  private static long[] ids(String sessions) {
+    try {
+      JsonNode json = MAPPER.readTree(sessions);
+      long[] ids = new long[json.size()];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = json.get(i).get("id").asLong();
+      }
+      return ids;
+    } catch (IOException e) {
+      return new long[0];
+    }
+  }
+
+  /**
+   * Latencies of one operation, in nanoseconds. Only 2xx responses count as
+   * successes; every other status, and I/O failures, count as errors.
+   */
+  private static class Recorder {
+    private long[] latencies = new long[1024];
+
+    private int size;
+
+    private long errors;
+
+    private final Map<String, Long> statuses = new TreeMap<>();
+
+    void record(long latency, String status) {
+      if (size == latencies.length) {
+        latencies = Arrays.copyOf(latencies, size * 2);
+      }
+      latencies[size++] = latency;
+      if (!status.startsWith("2")) {
+        errors++;
+      }
+      statuses.merge(status, 1L, Long::sum);
+    }
+
+    Recorder merge(Recorder other) {
+      if (size + other.size > latencies.length) {
+        latencies = Arrays.copyOf(latencies, size + other.size);
+      }
+      System.arraycopy(other.latencies, 0, latencies, size, other.size);
+      size += other.size;
+      errors += other.errors;
+      other.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+      return this;
+    }
+
+    long[] sorted() {
+      long[] sorted = Arrays.copyOf(latencies, size);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regions of the Hibernate second-level cache, held in a local Caffeine JCache
+ * manager. Every region is created here, so an entity marked cacheable without a
+ * matching region fails at startup instead of getting an unbounded cache.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    public static final String SESSION_USERS_REGION = Session.class.getName() + ".users";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // One manager per application context, so test contexts never share entries
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:yoga-app:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(Teacher.class.getName(), region(1_000, TimeUnit.HOURS.toNanos(1)));
+        cacheManager.createCache(Session.class.getName(), region(10_000, TimeUnit.MINUTES.toNanos(10)));
+        cacheManager.createCache(SESSION_USERS_REGION, region(10_000, TimeUnit.MINUTES.toNanos(10)));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(10_000, TimeUnit.MINUTES.toNanos(10)));
+        // Must outlive every cached query result, so it is neither bounded nor expired
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, long expireAfterWriteNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWriteNanos));
+        return configuration;
+    }
+}
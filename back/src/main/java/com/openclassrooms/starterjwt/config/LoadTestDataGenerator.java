@@ -0,0 +1,154 @@
+package com.openclassrooms.starterjwt.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeds the loadtest profile database, on top of the rows of script.sql, before
+ * the server accepts requests. Everything is drawn from oc.app.loadTestSeed, so
+ * two runs with the same settings start from the same data. Generated users log
+ * in as user1@studio.com, user2@studio.com... with oc.app.loadTestPassword.
+ */
+@Component
+@Profile("loadtest")
+@Log4j2
+public class LoadTestDataGenerator {
+    private static final String[] FIRST_NAMES = {"Margot", "Hélène", "Alice", "Louis", "Camille", "Hugo"};
+    private static final String[] LAST_NAMES = {"DELAHAYE", "THIERCELIN", "MARTIN", "BERNARD", "PETIT", "ROUX"};
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final long seed;
+
+    private final int teachers;
+
+    private final int users;
+
+    private final int sessions;
+
+    private final int participants;
+
+    private final String password;
+
+    public LoadTestDataGenerator(JdbcTemplate jdbcTemplate,
+                                 PasswordEncoder passwordEncoder,
+                                 @Value("${oc.app.loadTestSeed:42}") long seed,
+                                 @Value("${oc.app.loadTestTeachers:50}") int teachers,
+                                 @Value("${oc.app.loadTestUsers:10000}") int users,
+                                 @Value("${oc.app.loadTestSessions:1000}") int sessions,
+                                 @Value("${oc.app.loadTestParticipants:10}") int participants,
+                                 @Value("${oc.app.loadTestPassword:test!1234}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.seed = seed;
+        this.teachers = teachers;
+        this.users = users;
+        this.sessions = sessions;
+        this.participants = participants;
+        this.password = password;
+    }
+
+    @PostConstruct
+    public void generate() {
+        Random random = new Random(this.seed);
+        long start = System.nanoTime();
+
+        List<Long> teacherIds = insertTeachers(random);
+        List<Long> userIds = insertUsers(random);
+        List<Long> sessionIds = insertSessions(random, teacherIds);
+        int participations = insertParticipations(random, sessionIds, userIds);
+
+        log.info("Load test data: {} teachers, {} users, {} sessions, {} participations in {} ms",
+                teacherIds.size(), userIds.size(), sessionIds.size(), participations,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<Long> insertTeachers(Random random) {
+        long after = maxId("TEACHERS");
+        List<Object[]> rows = new ArrayList<>(this.teachers);
+        for (int i = 0; i < this.teachers; i++) {
+            rows.add(new Object[]{pick(random, FIRST_NAMES), pick(random, LAST_NAMES)});
+        }
+        insert("INSERT INTO TEACHERS (first_name, last_name) VALUES (?, ?)", rows);
+        return idsAfter("TEACHERS", after);
+    }
+
+    private List<Long> insertUsers(Random random) {
+        long after = maxId("USERS");
+        // One hash for everybody, bcrypt would otherwise dominate the start-up time
+        String hash = this.passwordEncoder.encode(this.password);
+        List<Object[]> rows = new ArrayList<>(this.users);
+        for (int i = 1; i <= this.users; i++) {
+            rows.add(new Object[]{pick(random, FIRST_NAMES), pick(random, LAST_NAMES), false, "user" + i + "@studio.com", hash});
+        }
+        insert("INSERT INTO USERS (first_name, last_name, admin, email, password) VALUES (?, ?, ?, ?, ?)", rows);
+        return idsAfter("USERS", after);
+    }
+
+    private List<Long> insertSessions(Random random, List<Long> teacherIds) {
+        long after = maxId("SESSIONS");
+        LocalDate firstDay = LocalDate.of(2024, 1, 1);
+        List<Object[]> rows = new ArrayList<>(this.sessions);
+        for (int i = 1; i <= this.sessions; i++) {
+            rows.add(new Object[]{
+                    "Session " + i,
+                    "Generated session " + i + " for load testing",
+                    Timestamp.valueOf(firstDay.plusDays(random.nextInt(365)).atTime(LocalTime.of(8 + random.nextInt(12), 0))),
+                    teacherIds.isEmpty() ? null : teacherIds.get(random.nextInt(teacherIds.size())),
+                    // Room left for the load driver on top of the seeded attendees
+                    this.participants + 20 + random.nextInt(20)});
+        }
+        insert("INSERT INTO SESSIONS (name, description, date, teacher_id, capacity) VALUES (?, ?, ?, ?, ?)", rows);
+        return idsAfter("SESSIONS", after);
+    }
+
+    private int insertParticipations(Random random, List<Long> sessionIds, List<Long> userIds) {
+        int perSession = Math.min(this.participants, userIds.size());
+        List<Object[]> rows = new ArrayList<>(sessionIds.size() * perSession);
+        for (Long sessionId : sessionIds) {
+            Set<Long> attendees = new LinkedHashSet<>();
+            while (attendees.size() < perSession) {
+                attendees.add(userIds.get(random.nextInt(userIds.size())));
+            }
+            attendees.forEach(userId -> rows.add(new Object[]{userId, sessionId}));
+        }
+        insert("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (?, ?)", rows);
+        return rows.size();
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            this.jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private List<Long> idsAfter(String table, long after) {
+        return this.jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id > ? ORDER BY id", Long.class, after);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
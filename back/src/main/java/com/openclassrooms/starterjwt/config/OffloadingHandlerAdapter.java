@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands each {@code @RestController} handler to the request pool as a
+ * {@link WebAsyncTask}, once its arguments have been read and validated on the
+ * Tomcat thread. Spring MVC carries the security context and the open entity
+ * manager over to the pool thread, as for any Callable. Handlers that are
+ * asynchronous already (change stream, export, login, reactive reads) and
+ * framework controllers such as the error page still run inline.
+ *
+ * <p>Admission is counted here rather than left to the pool's queue: a task the
+ * pool rejected would surface inside Spring MVC after the request went async.
+ */
+class OffloadingHandlerAdapter extends RequestMappingHandlerAdapter {
+    private static final List<Class<?>> ASYNC_TYPES = Arrays.asList(Callable.class, WebAsyncTask.class,
+            DeferredResult.class, CompletionStage.class, ListenableFuture.class, ResponseBodyEmitter.class,
+            StreamingResponseBody.class);
+
+    private final AsyncTaskExecutor taskExecutor;
+
+    private final int capacity;
+
+    private final Counter rejected;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OffloadingHandlerAdapter(AsyncTaskExecutor taskExecutor, int capacity, Counter rejected) {
+        this.taskExecutor = taskExecutor;
+        this.capacity = capacity;
+        this.rejected = rejected;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        return isOffloaded(handlerMethod)
+                ? new OffloadedHandlerMethod(handlerMethod)
+                : super.createInvocableHandlerMethod(handlerMethod);
+    }
+
+    static boolean isOffloaded(HandlerMethod handlerMethod) {
+        if (!AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), RestController.class)) {
+            return false;
+        }
+
+        MethodParameter returnType = handlerMethod.getReturnType();
+        Class<?> type = returnType.getParameterType();
+        if (HttpEntity.class.isAssignableFrom(type)) {
+            type = ResolvableType.forMethodParameter(returnType).getGeneric().resolve(Object.class);
+        }
+        Class<?> bodyType = type;
+        return ReactiveAdapterRegistry.getSharedInstance().getAdapter(bodyType) == null
+                && ASYNC_TYPES.stream().noneMatch(async -> async.isAssignableFrom(bodyType));
+    }
+
+    private class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+        OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) {
+            if (inFlight.incrementAndGet() > capacity) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                throw new ServiceUnavailableException();
+            }
+
+            WebAsyncTask<Object> task = new WebAsyncTask<>(null, taskExecutor, () -> super.doInvoke(args));
+            // Called once the request is over, whether it completed, failed or timed out
+            task.onCompletion(inFlight::decrementAndGet);
+            return task;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements each request runs on its own thread, security
+ * filters and view rendering included, and logs a warning past
+ * oc.app.queryCountWarnThreshold, the usual sign of an N+1 pattern. With
+ * oc.app.queryCountHeader the count so far is also sent back as X-Query-Count,
+ * set just before the response is committed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Log4j2
+public class QueryCountFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Query-Count";
+
+    private final int warnThreshold;
+
+    private final boolean header;
+
+    public QueryCountFilter(@Value("${oc.app.queryCountWarnThreshold:20}") int warnThreshold,
+                            @Value("${oc.app.queryCountHeader:false}") boolean header) {
+        this.warnThreshold = warnThreshold;
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = QueryCounter.current();
+        try {
+            filterChain.doFilter(request, this.header ? new CountingResponse(response, start) : response);
+        } finally {
+            long count = QueryCounter.current() - start;
+            if (this.header && !response.isCommitted()) {
+                // Nothing was written, e.g. a 304 or an empty 200
+                response.setHeader(HEADER, String.valueOf(count));
+            }
+            if (count > this.warnThreshold) {
+                log.warn("{} {} ran {} SQL statements, more than {}",
+                        request.getMethod(), request.getRequestURI(), count, this.warnThreshold);
+            }
+        }
+    }
+
+    private static class CountingResponse extends OnCommittedResponseWrapper {
+        private final long start;
+
+        CountingResponse(HttpServletResponse response, long start) {
+            super(response);
+            this.start = start;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(HEADER, String.valueOf(QueryCounter.current() - this.start));
+        }
+    }
+}
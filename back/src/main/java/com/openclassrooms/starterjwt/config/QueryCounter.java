@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Counts the statements sent to the database by the current thread. A batch
+ * counts once, as it is a single round trip. The count only grows, so callers
+ * take the difference between two reads rather than resetting it.
+ */
+@Component
+public class QueryCounter implements QueryExecutionListener {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        COUNT.get()[0]++;
+    }
+}
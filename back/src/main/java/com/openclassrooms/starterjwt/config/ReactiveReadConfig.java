@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Non-blocking connections for the streamed session and teacher reads, enabled by
+ * {@code oc.app.reactiveReads=true}. Boot's R2DBC auto-configuration is excluded
+ * and the pool is not a bean: a {@code ConnectionFactory} bean would make Boot drop
+ * the JDBC datasource and the JPA transaction manager every write still relies on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "oc.app.reactiveReads", havingValue = "true")
+public class ReactiveReadConfig implements DisposableBean {
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${oc.app.r2dbcUrl}") String url,
+                                                 @Value("${spring.datasource.username}") String username,
+                                                 @Value("${spring.datasource.password}") String password,
+                                                 @Value("${oc.app.r2dbcPoolSize:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+
+        return DatabaseClient.create(this.connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.connectionPool != null) {
+            this.connectionPool.dispose();
+        }
+    }
+}
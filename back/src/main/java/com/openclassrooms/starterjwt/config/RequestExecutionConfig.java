@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code oc.app.executionMode=offload} runs the {@code @RestController} handlers
+ * on a pool of oc.app.requestThreads instead of Tomcat's worker threads. Sized
+ * near the connection pool, it bounds the handlers blocked on the database, and
+ * requests beyond it queue in memory or, once oc.app.requestQueueCapacity is
+ * reached, get a 503. Tomcat's threads stay free for logins, health checks and
+ * the change stream. The pool is not a bean: any {@code Executor} bean would
+ * replace Boot's application task executor.
+ *
+ * <p>Time spent in the queue counts against spring.mvc.async.request-timeout.
+ * Statements run on the pool thread are not part of the X-Query-Count header.
+ */
+@Configuration
+@ConditionalOnProperty(name = "oc.app.executionMode", havingValue = "offload")
+public class RequestExecutionConfig implements DisposableBean {
+    private ThreadPoolExecutor executor;
+
+    @Bean
+    public WebMvcRegistrations offloadingMvcRegistrations(@Value("${oc.app.requestThreads:20}") int threads,
+                                                          @Value("${oc.app.requestQueueCapacity:200}") int queueCapacity,
+                                                          MeterRegistry meterRegistry) {
+        // The queue itself is unbounded, the adapter admits at most threads + queueCapacity requests
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("request-"));
+        ExecutorServiceMetrics.monitor(meterRegistry, this.executor, "request");
+        Counter rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requests refused because the request pool was saturated")
+                .register(meterRegistry);
+
+        OffloadingHandlerAdapter adapter = new OffloadingHandlerAdapter(
+                new ConcurrentTaskExecutor(this.executor), threads + queueCapacity, rejected);
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return adapter;
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+}
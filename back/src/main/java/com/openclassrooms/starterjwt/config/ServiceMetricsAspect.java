@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the blocking services as service.invocations,
+ * tagged with the service, the method and the exception thrown, if any. The
+ * reactive query services are left out, as timing them would only measure how
+ * long the Flux took to assemble.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.openclassrooms.starterjwt.services.*Service.*(..))"
+            + " && !within(com.openclassrooms.starterjwt.services.Reactive*)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("service.invocations")
+                    .description("Duration of service method calls")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(this.meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.config;
+
+import lombok.extern.log4j.Log4j2;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Logs statements slower than oc.app.slowQueryMs at WARN, and a random
+ * oc.app.queryLogSampleRate share of the others at INFO, as one key=value line
+ * each. Bound values are never written, only how many there were, and literals
+ * inlined in the SQL text are replaced by ?. The logger goes through an async
+ * appender (logback-spring.xml), so logging never waits on the console.
+ */
+@Component
+@Log4j2
+public class SlowQueryLogger implements QueryExecutionListener {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final long thresholdMs;
+
+    private final double sampleRate;
+
+    public SlowQueryLogger(@Value("${oc.app.slowQueryMs:200}") long thresholdMs,
+                           @Value("${oc.app.queryLogSampleRate:0}") double sampleRate) {
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() >= this.thresholdMs) {
+            if (log.isWarnEnabled()) {
+                log.warn(format("slow", execInfo, queryInfoList));
+            }
+        } else if (this.sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < this.sampleRate) {
+            if (log.isInfoEnabled()) {
+                log.info(format("sampled", execInfo, queryInfoList));
+            }
+        }
+    }
+
+    static String format(String kind, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        int params = queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()
+                ? 0
+                : queryInfoList.get(0).getParametersList().get(0).size();
+        String sql = queryInfoList.stream()
+                .map(queryInfo -> redact(queryInfo.getQuery()))
+                .collect(Collectors.joining("; "));
+        if (sql.length() > MAX_SQL_LENGTH) {
+            sql = sql.substring(0, MAX_SQL_LENGTH) + "...";
+        }
+
+        return "query=" + kind
+                + " elapsedMs=" + execInfo.getElapsedTime()
+                + " success=" + execInfo.isSuccess()
+                + " type=" + execInfo.getStatementType()
+                + " batchSize=" + (execInfo.isBatch() ? execInfo.getBatchSize() : 0)
+                + " params=" + params
+                + " connection=" + execInfo.getConnectionId()
+                + " sql=\"" + sql.replace("\"", "\\\"") + "\"";
+    }
+
+    static String redact(String sql) {
+        String redacted = STRING_LITERAL.matcher(sql).replaceAll("?");
+        redacted = NUMBER_LITERAL.matcher(redacted).replaceAll("?");
+        return WHITESPACE.matcher(redacted).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.services.ReactiveSessionQueryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streamed variant of {@code GET /api/session}, chosen with
+ * {@code Accept: application/x-ndjson}. Each session is written as soon as it is
+ * read, and the next one is only requested once it has been flushed.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/session")
+@ConditionalOnProperty(name = "oc.app.reactiveReads", havingValue = "true")
+public class ReactiveSessionController {
+    private final ReactiveSessionQueryService reactiveSessionQueryService;
+
+    public ReactiveSessionController(ReactiveSessionQueryService reactiveSessionQueryService) {
+        this.reactiveSessionQueryService = reactiveSessionQueryService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SessionDto> streamAll() {
+        return this.reactiveSessionQueryService.findAll();
+    }
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.services.ReactiveTeacherQueryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/teacher")
+@ConditionalOnProperty(name = "oc.app.reactiveReads", havingValue = "true")
+public class ReactiveTeacherController {
+    private final ReactiveTeacherQueryService reactiveTeacherQueryService;
+
+    public ReactiveTeacherController(ReactiveTeacherQueryService reactiveTeacherQueryService) {
+        this.reactiveTeacherQueryService = reactiveTeacherQueryService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TeacherDto> streamAll() {
+        return this.reactiveTeacherQueryService.findAll();
+    }
+}
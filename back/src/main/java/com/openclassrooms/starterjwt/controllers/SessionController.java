@@ -4,13 +4,34 @@ package com.openclassrooms.starterjwt.controllers;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.BulkParticipationRequest;
+import com.openclassrooms.starterjwt.services.ParticipationService;
+import com.openclassrooms.starterjwt.services.ResourceVersion;
+import com.openclassrooms.starterjwt.services.SessionCursor;
+import com.openclassrooms.starterjwt.services.SessionEventStream;
+import com.openclassrooms.starterjwt.services.SessionExportService;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import com.openclassrooms.starterjwt.services.SessionQueryService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -19,46 +40,132 @@ import java.util.List;
 public class SessionController {
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final SessionQueryService sessionQueryService;
+    private final ParticipationService participationService;
+    private final WaitlistService waitlistService;
+    private final SessionEventStream sessionEventStream;
+    private final SessionExportService sessionExportService;
+    private final SessionImportService sessionImportService;
+    private final int importMaxRows;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionQueryService sessionQueryService,
+                             ParticipationService participationService,
+                             WaitlistService waitlistService,
+                             SessionEventStream sessionEventStream,
+                             SessionExportService sessionExportService,
+                             SessionImportService sessionImportService,
+                             SessionMapper sessionMapper,
+                             @Value("${oc.app.importMaxRows:10000}") int importMaxRows) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.sessionQueryService = sessionQueryService;
+        this.participationService = participationService;
+        this.waitlistService = waitlistService;
+        this.sessionEventStream = sessionEventStream;
+        this.sessionExportService = sessionExportService;
+        this.sessionImportService = sessionImportService;
+        this.importMaxRows = importMaxRows;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            ResourceVersion version = this.sessionQueryService.findVersion(Long.valueOf(id));
+            if (version != null && request.checkNotModified(version.getETag(), version.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            SessionDto session = this.sessionQueryService.findById(Long.valueOf(id));
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok().body(session);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(WebRequest request) {
+        // ETag only: a delete can leave the latest updated_at, hence Last-Modified, unchanged
+        ResourceVersion version = this.sessionQueryService.findVersion();
+        if (request.checkNotModified(version.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        return ResponseEntity.ok().body(this.sessionQueryService.findAll());
+    }
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    @GetMapping("/page")
+    public ResponseEntity<?> findPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "size", required = false) Integer size,
+                                      @RequestParam(value = "from", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME, fallbackPatterns = "yyyy-MM-dd") Date from,
+                                      @RequestParam(value = "to", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME, fallbackPatterns = "yyyy-MM-dd") Date to,
+                                      WebRequest request) {
+        int pageSize = size != null ? size : SessionQueryService.DEFAULT_PAGE_SIZE;
+        if (pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResourceVersion version = this.sessionQueryService.findVersion();
+        if (request.checkNotModified(version.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        SessionCursor after = cursor != null ? SessionCursor.decode(cursor) : null;
+
+        return ResponseEntity.ok().body(this.sessionQueryService.findPage(after, from, to, pageSize));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        SessionExportService.Format exportFormat;
+        try {
+            exportFormat = SessionExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = exportFormat == SessionExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sessions." + (csv ? "csv" : "ndjson") + "\"")
+                .body(out -> this.sessionExportService.export(exportFormat, out));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return this.sessionEventStream.subscribe();
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
-        log.info(sessionDto);
-
         Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
 
-        log.info(session);
+        // A summary only: the entity's toString would walk the attendees
+        log.info("Created session {} on {} with teacher {} and {} participants",
+                session.getId(), session.getDate(), sessionDto.getTeacher_id(),
+                sessionDto.getUsers() != null ? sessionDto.getUsers().size() : 0);
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importSessions(@RequestBody List<SessionDto> sessionDtos) {
+        if (sessionDtos.size() > this.importMaxRows) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().body(this.sessionImportService.importSessions(sessionDtos));
+    }
+
     @PutMapping("{id}")
     public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
         try {
@@ -86,10 +193,20 @@ public class SessionController {
         }
     }
 
+    @PostMapping("/participate")
+    public ResponseEntity<?> participateAll(@Valid @RequestBody BulkParticipationRequest request) {
+        return ResponseEntity.ok().body(this.participationService.participateAll(request.getSessionIds(), request.getUserIds()));
+    }
+
+    @DeleteMapping("/participate")
+    public ResponseEntity<?> noLongerParticipateAll(@Valid @RequestBody BulkParticipationRequest request) {
+        return ResponseEntity.ok().body(this.participationService.noLongerParticipateAll(request.getSessionIds(), request.getUserIds()));
+    }
+
     @PostMapping("{id}/participate/{userId}")
     public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+            this.participationService.participate(Long.parseLong(id), Long.parseLong(userId));
 
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
@@ -100,7 +217,38 @@ public class SessionController {
     @DeleteMapping("{id}/participate/{userId}")
     public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
-            this.sessionService.noLongerParticipate(Long.parseLong(id), Long.parseLong(userId));
+            this.participationService.noLongerParticipate(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist")
+    public ResponseEntity<?> findWaitlist(@PathVariable("id") String id) {
+        try {
+            return ResponseEntity.ok().body(this.waitlistService.findQueue(Long.parseLong(id)));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.join(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.leave(Long.parseLong(id), Long.parseLong(userId));
 
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
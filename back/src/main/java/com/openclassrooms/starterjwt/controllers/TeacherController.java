@@ -2,9 +2,12 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.ResourceVersion;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -22,8 +25,13 @@ public class TeacherController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
+            ResourceVersion version = this.teacherService.findVersion(Long.valueOf(id));
+            if (version != null && request.checkNotModified(version.getETag(), version.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             Teacher teacher = this.teacherService.findById(Long.valueOf(id));
 
             if (teacher == null) {
@@ -37,7 +45,13 @@ public class TeacherController {
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(WebRequest request) {
+        // ETag only: a delete can leave the latest updated_at, hence Last-Modified, unchanged
+        ResourceVersion version = this.teacherService.findVersion();
+        if (request.checkNotModified(version.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         List<Teacher> teachers = this.teacherService.findAll();
 
         return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one (session, user) pair of a bulk participate or unparticipate.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationResultDto {
+    public enum Status {
+        JOINED,
+        LEFT,
+        ALREADY_PARTICIPATING,
+        NOT_PARTICIPATING,
+        SESSION_FULL,
+        SESSION_NOT_FOUND,
+        USER_NOT_FOUND
+    }
+
+    private Long sessionId;
+
+    private Long userId;
+
+    private Status status;
+}
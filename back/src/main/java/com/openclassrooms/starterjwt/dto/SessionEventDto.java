@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change to a session, published once the transaction that made it has committed.
+ * {@code userId} is only set for participant events.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionEventDto {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        PARTICIPANT_JOINED,
+        PARTICIPANT_LEFT,
+        // Events were dropped for this client, which should reload the sessions
+        RESYNC
+    }
+
+    private Type type;
+
+    private Long sessionId;
+
+    private Long userId;
+
+    public static SessionEventDto of(Type type, Long sessionId) {
+        return new SessionEventDto(type, sessionId, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code ids} follows the order of the submitted
+ * sessions, with null for each rejected one; {@code errors} tells why.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionImportReportDto {
+    private int imported;
+
+    private List<Long> ids;
+
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int index;
+
+        private List<String> messages;
+    }
+}
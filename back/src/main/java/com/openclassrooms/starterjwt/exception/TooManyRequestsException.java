@@ -0,0 +1,8 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value= HttpStatus.TOO_MANY_REQUESTS, reason = "Too many login attempts, retry later")
+public class TooManyRequestsException extends RuntimeException {
+}
@@ -0,0 +1,41 @@
+package com.openclassrooms.starterjwt.models;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A session change recorded in the transaction that made it, until the relay has
+ * handed it to every sink. No foreign key on session_id: DELETED events outlive
+ * their session.
+ */
+@Entity
+@Table(name = "OUTBOX_EVENTS")
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type")
+    private SessionEventDto.Type type;
+
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+
+/**
+ * One row of the PARTICIPATE join table, so that a single participation can be
+ * inserted or deleted without loading and rewriting {@link Session#getUsers()}.
+ */
+@Entity
+@Table(name = "PARTICIPATE", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_PARTICIPATE_SESSION_USER", columnNames = {"session_id", "user_id"})
+})
+@IdClass(ParticipationId.class)
+@Getter
+@EqualsAndHashCode(of = {"sessionId", "userId"})
+@NoArgsConstructor
+@ToString(of = {"sessionId", "userId"})
+public class Participation implements Persistable<ParticipationId> {
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    public Participation(Long sessionId, Long userId) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+    }
+
+    @Override
+    public ParticipationId getId() {
+        return new ParticipationId(this.sessionId, this.userId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return this.isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
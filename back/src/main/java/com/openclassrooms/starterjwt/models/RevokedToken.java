@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A revoked token (tokenId set) or every token of a user issued up to revokedAt
+ * (userId set). Rows are only kept until the tokens they cover have expired.
+ */
+@Entity
+@Table(name = "REVOKED_TOKENS", indexes = {
+        @Index(name = "IDX_REVOKED_TOKENS_EXPIRES_AT", columnList = "expires_at")
+})
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id")
+    private String tokenId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
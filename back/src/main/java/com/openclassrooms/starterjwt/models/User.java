@@ -23,7 +23,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @RequiredArgsConstructor
 @AllArgsConstructor
-@ToString
+@ToString(exclude = {"password"})
 public class User {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest modification and row count of a table: any insert, update or delete
+ * changes at least one of them, so only the pair identifies a version of a
+ * collection. The latest modification alone misses the delete of an older row
+ * and is only a Last-Modified for a single row.
+ */
+public interface CollectionVersion {
+    LocalDateTime getLastModified();
+
+    long getTotal();
+}
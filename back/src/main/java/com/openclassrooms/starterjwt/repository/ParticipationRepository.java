@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
+@Repository
+public interface ParticipationRepository extends JpaRepository<Participation, ParticipationId> {
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
+
+    long countBySessionId(Long sessionId);
+
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.sessionId = :sessionId AND p.userId = :userId")
+    int deleteBySessionIdAndUserId(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query("SELECT p.userId FROM Participation p WHERE p.sessionId = :sessionId AND p.userId IN :userIds")
+    List<Long> findUserIds(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.sessionId = :sessionId AND p.userId IN :userIds")
+    int deleteBySessionIdAndUserIdIn(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT p.sessionId AS sessionId, p.userId AS userId FROM Participation p WHERE p.sessionId IN :sessionIds")
+    List<SessionParticipant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT p.sessionId AS sessionId, p.userId AS userId FROM Participation p")
+    List<SessionParticipant> findAllParticipants();
+}
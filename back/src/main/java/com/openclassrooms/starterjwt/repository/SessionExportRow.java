@@ -0,0 +1,8 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * A session joined with one of its participants, or with none (null user id).
+ */
+public interface SessionExportRow extends SessionSummary {
+    Long getUserId();
+}
@@ -1,9 +1,86 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    String SUMMARY_SELECT = "SELECT s.id AS id, s.name AS name, s.date AS date, s.description AS description,"
+            + " s.teacher.id AS teacherId, s.capacity AS capacity, s.createdAt AS createdAt, s.updatedAt AS updatedAt FROM Session s";
+
+    /**
+     * Loads the session with a row lock, so that concurrent bookings of the same
+     * session are applied one after the other while other sessions are unaffected.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s WHERE s.id = :id")
+    Optional<Session> findByIdForUpdate(@Param("id") Long id);
+
+    // Locked in id order, so that two bulk requests over the same sessions cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s WHERE s.id IN :ids ORDER BY s.id ASC")
+    List<Session> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT MAX(s.updatedAt) AS lastModified, COUNT(s) AS total FROM Session s WHERE s.id = :id")
+    CollectionVersion findVersionById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT MAX(s.updatedAt) AS lastModified, COUNT(s) AS total FROM Session s")
+    CollectionVersion findVersion();
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query(SUMMARY_SELECT + " WHERE s.id = :id")
+    Optional<SessionSummary> findSummaryById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query(SUMMARY_SELECT)
+    List<SessionSummary> findAllSummaries();
+
+    /**
+     * Streams every session and participant, ordered by session. The minimum fetch
+     * size makes MySQL Connector/J read rows one by one instead of buffering the
+     * whole result; the stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT s.id AS id, s.name AS name, s.date AS date, s.description AS description,"
+            + " s.teacher.id AS teacherId, s.capacity AS capacity, s.createdAt AS createdAt, s.updatedAt AS updatedAt,"
+            + " p.userId AS userId"
+            + " FROM Session s LEFT JOIN Participation p ON p.sessionId = s.id"
+            + " ORDER BY s.id ASC, p.userId ASC")
+    Stream<SessionExportRow> streamExportRows();
+
+    @Query(SUMMARY_SELECT
+            + " WHERE (:from IS NULL OR s.date >= :from) AND (:to IS NULL OR s.date < :to)"
+            + " ORDER BY s.date ASC, s.id ASC")
+    Slice<SessionSummary> findFirstPage(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    @Query(SUMMARY_SELECT
+            + " WHERE (s.date > :date OR (s.date = :date AND s.id > :id))"
+            + " AND (:from IS NULL OR s.date >= :from) AND (:to IS NULL OR s.date < :to)"
+            + " ORDER BY s.date ASC, s.id ASC")
+    Slice<SessionSummary> findPageAfter(@Param("date") Date date, @Param("id") Long id,
+                                        @Param("from") Date from, @Param("to") Date to, Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+public interface SessionSummary {
+    Long getId();
+
+    String getName();
+
+    Date getDate();
+
+    String getDescription();
+
+    Long getTeacherId();
+
+    Integer getCapacity();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -2,8 +2,31 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+    @Override
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    List<Teacher> findAll();
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT MAX(t.updatedAt) AS lastModified, COUNT(t) AS total FROM Teacher t WHERE t.id = :id")
+    CollectionVersion findVersionById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT MAX(t.updatedAt) AS lastModified, COUNT(t) AS total FROM Teacher t")
+    CollectionVersion findVersion();
+
+    @Query("SELECT t.id FROM Teacher t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
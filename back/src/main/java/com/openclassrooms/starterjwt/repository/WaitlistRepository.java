@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    boolean existsBySessionId(Long sessionId);
+
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
+
+    List<WaitlistEntry> findBySessionIdOrderByIdAsc(Long sessionId, Pageable pageable);
+
+    @Query("SELECT w.userId FROM WaitlistEntry w WHERE w.sessionId = :sessionId ORDER BY w.id ASC")
+    List<Long> findUserIdsBySessionId(@Param("sessionId") Long sessionId);
+
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.sessionId = :sessionId AND w.userId = :userId")
+    int deleteBySessionIdAndUserId(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.sessionId = :sessionId AND w.userId IN :userIds")
+    int deleteBySessionIdAndUserIdIn(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+}
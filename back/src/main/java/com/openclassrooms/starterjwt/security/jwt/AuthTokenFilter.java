@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -10,15 +11,20 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
@@ -26,17 +32,34 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private JwtTokenCache jwtTokenCache;
+
+  @Autowired
+  private TokenDenylist tokenDenylist;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.authFailureLogsPerMinute:10}")
+  private int authFailureLogsPerMinute = 10;
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+  private RateLimitedLog authFailures;
+
+  @PostConstruct
+  void init() {
+    authFailures = new RateLimitedLog(logger, authFailureLogsPerMinute);
+  }
+
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      UserDetailsImpl userDetails = jwt != null ? timedAuthenticate(jwt) : null;
+      if (userDetails != null) {
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -47,12 +70,60 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      // Typically a token whose user no longer exists; the request simply goes on unauthenticated
+      authFailures.warn("Cannot set user authentication", e.toString());
     }
 
     filterChain.doFilter(request, response);
   }
 
+  /**
+   * Records auth.jwt.validation, tagged with whether the token was already in
+   * the cache and whether it was accepted.
+   */
+  private UserDetailsImpl timedAuthenticate(String jwt) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    VerifiedToken cached = jwtTokenCache.get(jwt);
+    UserDetailsImpl userDetails = null;
+    try {
+      userDetails = authenticate(jwt, cached);
+      return userDetails;
+    } finally {
+      sample.stop(Timer.builder("auth.jwt.validation")
+          .description("Time spent validating the bearer token of a request")
+          .tag("cache", cached != null ? "hit" : "miss")
+          .tag("outcome", userDetails != null ? "accepted" : "rejected")
+          .register(meterRegistry));
+    }
+  }
+
+  private UserDetailsImpl authenticate(String jwt, VerifiedToken cached) {
+    VerifiedToken verified = cached;
+    if (verified == null) {
+      Claims claims = jwtUtils.parseClaims(jwt);
+      if (claims == null) {
+        return null;
+      }
+
+      UserDetailsImpl userDetails = jwtUtils.isSelfContained() ? jwtUtils.getUserDetailsFromClaims(claims) : null;
+      if (userDetails == null) {
+        userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+      }
+      verified = new VerifiedToken(userDetails, claims);
+      jwtTokenCache.put(jwt, verified);
+    }
+
+    Claims claims = verified.getClaims();
+    if (tokenDenylist.isTokenRevoked(claims.getId())) {
+      return null;
+    }
+    if (jwtUtils.isSelfContained()
+        && tokenDenylist.isUserRevoked(verified.getUserDetails().getId(), claims.getIssuedAt())) {
+      return null;
+    }
+    return verified.getUserDetails();
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Builds the signing and verification keys once, from the configured secret or
+ * PEM files.
+ */
+final class JwtKeys {
+  private JwtKeys() {
+  }
+
+  /**
+   * Uses the secret as is. A secret shorter than the algorithm needs stops the
+   * startup: hashing it would only hide a guessable key.
+   */
+  static SecretKey hmacKey(String secret, SignatureAlgorithm algorithm) {
+    byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length * 8 < algorithm.getMinKeyLength()) {
+      throw new IllegalStateException("oc.app.jwtSecret must be at least " + algorithm.getMinKeyLength() / 8
+          + " bytes for " + algorithm + ", it is " + bytes.length);
+    }
+    return Keys.hmacShaKeyFor(bytes);
+  }
+
+  /** Reads a PKCS#8 "BEGIN PRIVATE KEY" PEM file. */
+  static PrivateKey privateKey(Resource pem, SignatureAlgorithm algorithm) {
+    try {
+      return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(decode(pem)));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Invalid JWT private key " + pem, e);
+    }
+  }
+
+  /** Reads an X.509 "BEGIN PUBLIC KEY" PEM file. */
+  static PublicKey publicKey(Resource pem, SignatureAlgorithm algorithm) {
+    try {
+      return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(decode(pem)));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Invalid JWT public key " + pem, e);
+    }
+  }
+
+  private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+    if (algorithm.isRsa()) {
+      return KeyFactory.getInstance("RSA");
+    }
+    if (algorithm.isEllipticCurve()) {
+      return KeyFactory.getInstance("EC");
+    }
+    throw new IllegalStateException("Unsupported JWT algorithm " + algorithm);
+  }
+
+  private static byte[] decode(Resource pem) {
+    try (InputStream in = pem.getInputStream()) {
+      String content = StreamUtils.copyToString(in, StandardCharsets.US_ASCII)
+          .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "");
+      return Base64.getMimeDecoder().decode(content);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read JWT key " + pem, e);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Bounded cache of already verified tokens, so that authenticated requests do not
+ * parse the token and load the user again. An entry never outlives its token.
+ */
+@Component
+public class JwtTokenCache {
+  private final Cache<String, VerifiedToken> cache;
+
+  public JwtTokenCache(@Value("${oc.app.jwtCacheTtlMs:60000}") long ttlMs,
+      @Value("${oc.app.jwtCacheMaxSize:10000}") long maxSize) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(ttlMs)))
+        .build();
+  }
+
+  public VerifiedToken get(String token) {
+    return cache.getIfPresent(token);
+  }
+
+  public void put(String token, VerifiedToken verified) {
+    cache.put(token, verified);
+  }
+
+  public void evictUser(Long userId) {
+    cache.asMap().values().removeIf(cached -> userId.equals(cached.getUserDetails().getId()));
+  }
+
+  private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+    private final long ttlNanos;
+
+    TokenExpiry(long ttlNanos) {
+      this.ttlNanos = ttlNanos;
+    }
+
+    @Override
+    public long expireAfterCreate(String token, VerifiedToken cached, long currentTime) {
+      long expiresAtMs = cached.getClaims().getExpiration().getTime();
+      long untilTokenExpires = TimeUnit.MILLISECONDS.toNanos(expiresAtMs - System.currentTimeMillis());
+      return Math.max(0, Math.min(ttlNanos, untilTokenExpires));
+    }
+
+    @Override
+    public long expireAfterUpdate(String token, VerifiedToken cached, long currentTime, long currentDuration) {
+      return expireAfterCreate(token, cached, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String token, VerifiedToken cached, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
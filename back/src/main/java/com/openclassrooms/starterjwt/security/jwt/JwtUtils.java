@@ -1,16 +1,22 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.SignatureException;
 
 @Component
 public class JwtUtils {
@@ -22,38 +28,121 @@ public class JwtUtils {
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  @Value("${oc.app.jwtSelfContained:false}")
+  private boolean selfContained;
+
+  @Value("${oc.app.jwtAlgorithm:HS512}")
+  private SignatureAlgorithm jwtAlgorithm;
+
+  @Value("${oc.app.jwtPrivateKey:#{null}}")
+  private Resource jwtPrivateKey;
+
+  @Value("${oc.app.jwtPublicKey:#{null}}")
+  private Resource jwtPublicKey;
+
+  @Value("${oc.app.authFailureLogsPerMinute:10}")
+  private int authFailureLogsPerMinute = 10;
+
+  private RateLimitedLog authFailures;
+
+  private Key signingKey;
+
+  private JwtParser parser;
+
+  /**
+   * Keys and parser are built once here; the parser is immutable and shared by all
+   * requests.
+   */
+  @PostConstruct
+  void init() {
+    Key verificationKey;
+    if (jwtAlgorithm.isHmac()) {
+      signingKey = JwtKeys.hmacKey(jwtSecret, jwtAlgorithm);
+      verificationKey = signingKey;
+    } else {
+      if (jwtPrivateKey == null || jwtPublicKey == null) {
+        throw new IllegalStateException(jwtAlgorithm + " requires oc.app.jwtPrivateKey and oc.app.jwtPublicKey");
+      }
+      signingKey = JwtKeys.privateKey(jwtPrivateKey, jwtAlgorithm);
+      verificationKey = JwtKeys.publicKey(jwtPublicKey, jwtAlgorithm);
+    }
+    parser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+    authFailures = new RateLimitedLog(logger, authFailureLogsPerMinute);
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
     return Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
+        .setId(UUID.randomUUID().toString())
+        .claim("id", userPrincipal.getId())
+        .claim("firstName", userPrincipal.getFirstName())
+        .claim("lastName", userPrincipal.getLastName())
+        .claim("admin", userPrincipal.getAdmin())
         .setIssuedAt(new Date())
         .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .signWith(signingKey, jwtAlgorithm)
         .compact();
   }
 
+  /**
+   * When true, requests are authenticated from the token claims alone instead of
+   * loading the user on each request.
+   */
+  public boolean isSelfContained() {
+    return selfContained;
+  }
+
+  /**
+   * Rebuilds the user from the claims of a self-contained token, or returns null
+   * for a token issued without them.
+   */
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Long id = claims.get("id", Long.class);
+    if (id == null) {
+      return null;
+    }
+
+    return UserDetailsImpl
+        .builder()
+        .id(id)
+        .username(claims.getSubject())
+        .firstName(claims.get("firstName", String.class))
+        .lastName(claims.get("lastName", String.class))
+        .admin(claims.get("admin", Boolean.class))
+        .build();
+  }
+
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return parser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseClaims(authToken) != null;
+  }
+
+  /**
+   * Verifies the token and returns its claims in a single parse, or null when the
+   * token is not valid. Rejections are client errors, logged at WARN and rate
+   * limited.
+   */
+  public Claims parseClaims(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return parser.parseClaimsJws(authToken).getBody();
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      authFailures.warn("Invalid JWT signature", e.getMessage());
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      authFailures.warn("Invalid JWT token", e.getMessage());
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      authFailures.warn("JWT token is expired", e.getMessage());
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      authFailures.warn("JWT token is unsupported", e.getMessage());
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      authFailures.warn("JWT claims string is empty", e.getMessage());
     }
 
-    return false;
+    return null;
   }
 }
@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+
+/**
+ * Writes at most a fixed number of WARN lines per reason and per minute, so that
+ * a client replaying a bad token cannot flood the log. Dropped lines are counted
+ * and the count is reported on the next line written for the same reason.
+ * Reasons are expected to be a small fixed set of constant strings. Details may
+ * echo client input, such as a token, so their control characters are replaced
+ * to keep a client from forging log lines.
+ */
+public class RateLimitedLog {
+  private static final long INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private static final Pattern CONTROL_CHARACTERS = Pattern.compile("\\p{Cntrl}");
+
+  private final Logger logger;
+
+  private final int linesPerMinute;
+
+  private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+  public RateLimitedLog(Logger logger, int linesPerMinute) {
+    this.logger = logger;
+    this.linesPerMinute = linesPerMinute;
+  }
+
+  public void warn(String reason, String detail) {
+    if (!logger.isWarnEnabled()) {
+      return;
+    }
+    long suppressed = windows.computeIfAbsent(reason, key -> new Window()).acquire(System.nanoTime());
+    if (suppressed == 0) {
+      logger.warn("{}: {}", reason, sanitize(detail));
+    } else if (suppressed > 0) {
+      logger.warn("{}: {} ({} similar lines suppressed)", reason, sanitize(detail), suppressed);
+    }
+  }
+
+  private static String sanitize(String detail) {
+    return detail != null ? CONTROL_CHARACTERS.matcher(detail).replaceAll("_") : null;
+  }
+
+  private class Window {
+    private long start = Long.MIN_VALUE;
+
+    private int written;
+
+    private long suppressed;
+
+    /**
+     * Returns how many lines were dropped before this one, or -1 when this one
+     * has to be dropped as well.
+     */
+    synchronized long acquire(long now) {
+      if (start == Long.MIN_VALUE || now - start >= INTERVAL_NANOS) {
+        long dropped = suppressed;
+        start = now;
+        written = 0;
+        suppressed = 0;
+        if (linesPerMinute > 0) {
+          written = 1;
+          return dropped;
+        }
+      } else if (written < linesPerMinute) {
+        written++;
+        return 0;
+      }
+      suppressed++;
+      return -1;
+    }
+  }
+}
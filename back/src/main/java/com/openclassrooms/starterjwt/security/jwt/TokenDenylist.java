@@ -0,0 +1,126 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+/**
+ * In-memory view of REVOKED_TOKENS, so that checking a token on each request does
+ * not hit the database. Revocations made on this instance apply immediately, the
+ * ones made elsewhere once the next refresh has run. A refresh only reads the rows
+ * added since the previous one, expired entries are dropped from memory.
+ */
+@Component
+public class TokenDenylist {
+  private static final Logger logger = LoggerFactory.getLogger(TokenDenylist.class);
+
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  private final long jwtExpirationMs;
+
+  // token id -> token expiration
+  private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+  // user id -> latest revocation, tokens issued up to it are rejected
+  private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+  // user id -> expiration of the revocation
+  private final Map<Long, Long> revokedUsersUntil = new ConcurrentHashMap<>();
+
+  // highest REVOKED_TOKENS id loaded so far; rows are inserted one per short transaction
+  private volatile long lastLoadedId;
+
+  public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+      @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.jwtExpirationMs = jwtExpirationMs;
+  }
+
+  public boolean isTokenRevoked(String tokenId) {
+    return tokenId != null && revokedTokens.containsKey(tokenId);
+  }
+
+  public boolean isUserRevoked(Long userId, Date issuedAt) {
+    Long revokedAt = userId != null ? revokedUsers.get(userId) : null;
+    return revokedAt != null && (issuedAt == null || issuedAt.getTime() <= revokedAt);
+  }
+
+  public void revokeToken(String tokenId, Long userId, Date expiration) {
+    long now = System.currentTimeMillis();
+    revokedTokenRepository.save(new RevokedToken()
+        .setTokenId(tokenId)
+        .setUserId(userId)
+        .setRevokedAt(toLocalDateTime(now))
+        .setExpiresAt(toLocalDateTime(expiration.getTime())));
+    addToken(tokenId, expiration.getTime());
+  }
+
+  public void revokeUser(Long userId) {
+    long now = System.currentTimeMillis();
+    long until = now + jwtExpirationMs;
+    revokedTokenRepository.save(new RevokedToken()
+        .setUserId(userId)
+        .setRevokedAt(toLocalDateTime(now))
+        .setExpiresAt(toLocalDateTime(until)));
+    addUser(userId, now, until);
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.jwtDenylistRefreshMs:30000}")
+  public void refresh() {
+    long now = System.currentTimeMillis();
+    try {
+      for (RevokedToken revoked : revokedTokenRepository
+          .findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(lastLoadedId, toLocalDateTime(now))) {
+        lastLoadedId = Math.max(lastLoadedId, revoked.getId());
+        long expiresAt = toEpochMilli(revoked.getExpiresAt());
+        if (revoked.getTokenId() != null) {
+          addToken(revoked.getTokenId(), expiresAt);
+        } else if (revoked.getUserId() != null) {
+          addUser(revoked.getUserId(), toEpochMilli(revoked.getRevokedAt()), expiresAt);
+        }
+      }
+      revokedTokenRepository.deleteExpired(toLocalDateTime(now));
+    } catch (DataAccessException e) {
+      logger.warn("Cannot refresh revoked tokens: {}", e.getMessage());
+    }
+
+    revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    revokedUsersUntil.entrySet().removeIf(entry -> {
+      if (entry.getValue() > now) {
+        return false;
+      }
+      revokedUsers.remove(entry.getKey());
+      return true;
+    });
+  }
+
+  private void addToken(String tokenId, long expiresAt) {
+    revokedTokens.merge(tokenId, expiresAt, Math::max);
+  }
+
+  private void addUser(Long userId, long revokedAt, long until) {
+    revokedUsersUntil.merge(userId, until, Math::max);
+    revokedUsers.merge(userId, revokedAt, Math::max);
+  }
+
+  private static LocalDateTime toLocalDateTime(long epochMilli) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+  }
+
+  private static long toEpochMilli(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
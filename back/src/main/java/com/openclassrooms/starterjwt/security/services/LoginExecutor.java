@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs password checks on a small dedicated pool, so that a burst of logins cannot
+ * tie up the web threads. When the pool and its queue are full the login is
+ * refused with a 429 instead of waiting.
+ */
+@Component
+public class LoginExecutor implements DisposableBean {
+  private final ThreadPoolExecutor executor;
+
+  private final Counter rejected;
+
+  public LoginExecutor(@Value("${oc.app.loginThreads:0}") int threads,
+      @Value("${oc.app.loginQueueCapacity:100}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("login-"),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.rejected = Counter.builder("auth.login.rejected")
+        .description("Logins refused because the login pool was saturated")
+        .register(meterRegistry);
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, "login");
+  }
+
+  public <T> CompletableFuture<T> submit(Supplier<T> task) {
+    try {
+      return CompletableFuture.supplyAsync(task, executor);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new TooManyRequestsException();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the time spent hashing and checking passwords, which is where most of
+ * a login goes, as auth.password.encode and auth.password.check.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+
+  private final Timer encodeTimer;
+
+  private final Timer matchTimer;
+
+  private final Timer mismatchTimer;
+
+  public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.encodeTimer = Timer.builder("auth.password.encode")
+        .description("Time spent hashing a password")
+        .register(meterRegistry);
+    this.matchTimer = checkTimer("match", meterRegistry);
+    this.mismatchTimer = checkTimer("mismatch", meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return encodeTimer.record(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    long start = System.nanoTime();
+    boolean matches = delegate.matches(rawPassword, encodedPassword);
+    (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    return matches;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private static Timer checkTimer(String outcome, MeterRegistry meterRegistry) {
+    return Timer.builder("auth.password.check")
+        .description("Time spent checking a password against its hash")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
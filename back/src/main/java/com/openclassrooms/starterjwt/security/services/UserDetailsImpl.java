@@ -3,8 +3,10 @@ package com.openclassrooms.starterjwt.security.services;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -13,7 +15,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @Getter
 public class UserDetailsImpl implements UserDetails {
@@ -33,7 +35,11 @@ public class UserDetailsImpl implements UserDetails {
   private String password;  
   
   public Collection<? extends GrantedAuthority> getAuthorities() {        
-      return new HashSet<GrantedAuthority>();
+      Set<GrantedAuthority> authorities = new HashSet<GrantedAuthority>();
+      if (Boolean.TRUE.equals(admin)) {
+        authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+      }
+      return authorities;
   }
 
   @Override
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Republishes relayed events in-process; consume them with
+ * {@code @EventListener void on(OutboxEvent event)}.
+ */
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        events.forEach(this.eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends relayed events to {@code oc.app.outboxFile}, one JSON object per line.
+ * The batch is on disk before the relay deletes it.
+ */
+@Component
+@ConditionalOnProperty(name = "oc.app.outboxFile")
+public class FileOutboxSink implements OutboxSink {
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(@Value("${oc.app.outboxFile}") String file, ObjectMapper objectMapper) {
+        this.file = Paths.get(file);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            lines.append(this.objectMapper.writeValueAsString(event)).append('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(this.file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Drains OUTBOX_EVENTS in id order. A batch is deleted in the transaction that
+ * delivered it to every sink; when a sink fails the whole batch stays and is
+ * retried on the next run, before anything that was recorded after it.
+ */
+@Component
+@Log4j2
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final List<OutboxSink> sinks;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSink> sinks,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${oc.app.outboxBatchSize:100}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.outboxRelayMs:1000}")
+    public void relay() {
+        try {
+            Integer delivered;
+            do {
+                delivered = this.transactionTemplate.execute(status -> relayBatch());
+            } while (delivered != null && delivered == this.batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying on next run", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = this.outboxEventRepository.findHeadForUpdate(PageRequest.of(0, this.batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        for (OutboxSink sink : this.sinks) {
+            try {
+                sink.deliver(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.outboxEventRepository.deleteAllInBatch(events);
+        return events.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of the outbox relay. Events come in id order, which is commit
+ * order for any given session, and may be delivered again after a failure, so
+ * sinks must tolerate duplicates.
+ */
+public interface OutboxSink {
+    void deliver(List<OutboxEvent> events) throws IOException;
+}
@@ -0,0 +1,202 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.ParticipationResultDto;
+import com.openclassrooms.starterjwt.dto.ParticipationResultDto.Status;
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ParticipationService {
+    private final ParticipationRepository participationRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final WaitlistService waitlistService;
+
+    private final SessionUsersCache sessionUsersCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ParticipationService(ParticipationRepository participationRepository,
+                                SessionRepository sessionRepository,
+                                UserRepository userRepository,
+                                WaitlistService waitlistService,
+                                SessionUsersCache sessionUsersCache,
+                                ApplicationEventPublisher eventPublisher) {
+        this.participationRepository = participationRepository;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.waitlistService = waitlistService;
+        this.sessionUsersCache = sessionUsersCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public void participate(Long id, Long userId) {
+        Session session = this.sessionRepository.findByIdForUpdate(id).orElse(null);
+        if (session == null || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        if (this.participationRepository.existsBySessionIdAndUserId(id, userId)) {
+            throw new BadRequestException();
+        }
+
+        if (session.getCapacity() != null && this.participationRepository.countBySessionId(id) >= session.getCapacity()) {
+            throw new SessionFullException();
+        }
+
+        try {
+            this.participationRepository.saveAndFlush(new Participation(id, userId));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request inserted the same row first
+            throw new BadRequestException();
+        }
+        this.sessionUsersCache.evictAfterCommit(id);
+        touch(session);
+        this.waitlistService.remove(id, userId);
+        this.eventPublisher.publishEvent(new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, id, userId));
+    }
+
+    @Transactional
+    public void noLongerParticipate(Long id, Long userId) {
+        Session session = this.sessionRepository.findByIdForUpdate(id).orElse(null);
+        if (session == null) {
+            throw new NotFoundException();
+        }
+
+        if (this.participationRepository.deleteBySessionIdAndUserId(id, userId) == 0) {
+            throw new BadRequestException();
+        }
+        touch(session);
+        this.eventPublisher.publishEvent(new SessionEventDto(SessionEventDto.Type.PARTICIPANT_LEFT, id, userId));
+
+        for (Long promoted : this.waitlistService.promote(session)) {
+            this.eventPublisher.publishEvent(new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, id, promoted));
+        }
+    }
+
+    /**
+     * Enrolls every user in every session in one transaction. Within a session, free
+     * seats go to the users in the order given; the others get SESSION_FULL.
+     */
+    @Transactional
+    public List<ParticipationResultDto> participateAll(Collection<Long> sessionIds, Collection<Long> userIds) {
+        Set<Long> users = new LinkedHashSet<>(userIds);
+        Set<Long> knownUsers = new HashSet<>(this.userRepository.findExistingIds(users));
+        Map<Long, Session> sessions = lockAll(sessionIds);
+
+        List<ParticipationResultDto> results = new ArrayList<>();
+        for (Long id : new TreeSet<>(sessionIds)) {
+            Session session = sessions.get(id);
+            if (session == null) {
+                users.forEach(userId -> results.add(new ParticipationResultDto(id, userId, Status.SESSION_NOT_FOUND)));
+                continue;
+            }
+
+            Set<Long> participating = new HashSet<>(this.participationRepository.findUserIds(id, users));
+            long freeSeats = session.getCapacity() == null
+                    ? Long.MAX_VALUE
+                    : session.getCapacity() - this.participationRepository.countBySessionId(id);
+            List<Long> joined = new ArrayList<>();
+            for (Long userId : users) {
+                Status status;
+                if (!knownUsers.contains(userId)) {
+                    status = Status.USER_NOT_FOUND;
+                } else if (participating.contains(userId)) {
+                    status = Status.ALREADY_PARTICIPATING;
+                } else if (joined.size() >= freeSeats) {
+                    status = Status.SESSION_FULL;
+                } else {
+                    joined.add(userId);
+                    status = Status.JOINED;
+                }
+                results.add(new ParticipationResultDto(id, userId, status));
+            }
+
+            if (!joined.isEmpty()) {
+                this.participationRepository.saveAll(joined.stream()
+                        .map(userId -> new Participation(id, userId))
+                        .collect(Collectors.toList()));
+                this.sessionUsersCache.evictAfterCommit(id);
+                touch(session);
+                this.waitlistService.removeAll(id, joined);
+                joined.forEach(userId -> this.eventPublisher.publishEvent(
+                        new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, id, userId)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Removes every user from every session in one transaction, then offers the freed
+     * seats to each session's waitlist.
+     */
+    @Transactional
+    public List<ParticipationResultDto> noLongerParticipateAll(Collection<Long> sessionIds, Collection<Long> userIds) {
+        Set<Long> users = new LinkedHashSet<>(userIds);
+        Map<Long, Session> sessions = lockAll(sessionIds);
+
+        List<ParticipationResultDto> results = new ArrayList<>();
+        for (Long id : new TreeSet<>(sessionIds)) {
+            Session session = sessions.get(id);
+            if (session == null) {
+                users.forEach(userId -> results.add(new ParticipationResultDto(id, userId, Status.SESSION_NOT_FOUND)));
+                continue;
+            }
+
+            Set<Long> participating = new HashSet<>(this.participationRepository.findUserIds(id, users));
+            for (Long userId : users) {
+                results.add(new ParticipationResultDto(id, userId,
+                        participating.contains(userId) ? Status.LEFT : Status.NOT_PARTICIPATING));
+            }
+
+            if (!participating.isEmpty()) {
+                this.participationRepository.deleteBySessionIdAndUserIdIn(id, participating);
+                touch(session);
+                users.stream().filter(participating::contains).forEach(userId -> this.eventPublisher.publishEvent(
+                        new SessionEventDto(SessionEventDto.Type.PARTICIPANT_LEFT, id, userId)));
+
+                for (Long promoted : this.waitlistService.promote(session)) {
+                    this.eventPublisher.publishEvent(new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, id, promoted));
+                }
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, Session> lockAll(Collection<Long> sessionIds) {
+        return this.sessionRepository.findAllByIdForUpdate(new TreeSet<>(sessionIds)).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+    }
+
+    // The participant list is part of the session resource, so its version must move too
+    private void touch(Session session) {
+        session.setUpdatedAt(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.services;
+
+import io.r2dbc.spi.Row;
+
+/**
+ * Column readers shared by the R2DBC query services.
+ */
+final class R2dbcRows {
+    private R2dbcRows() {
+    }
+
+    // INT columns decode as Integer with MySQL and H2 drivers alike, and H2 will not convert them to Long
+    static Long getLong(Row row, String name) {
+        Object value = row.get(name);
+        return value != null ? ((Number) value).longValue() : null;
+    }
+}
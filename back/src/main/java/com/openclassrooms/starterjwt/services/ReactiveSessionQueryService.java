@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.openclassrooms.starterjwt.services.R2dbcRows.getLong;
+
+/**
+ * Streams sessions with their participant ids. Rows come ordered by session, one per
+ * participant, and are folded into a {@link SessionDto} as soon as the next session
+ * starts, so only one session is held in memory at a time.
+ */
+@Service
+@ConditionalOnProperty(name = "oc.app.reactiveReads", havingValue = "true")
+public class ReactiveSessionQueryService {
+    private static final String SELECT_WITH_PARTICIPANTS = "SELECT s.id, s.name, s.date, s.description, s.teacher_id,"
+            + " s.capacity, s.created_at, s.updated_at, p.user_id"
+            + " FROM SESSIONS s LEFT JOIN PARTICIPATE p ON p.session_id = s.id"
+            + " ORDER BY s.id, p.user_id";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveSessionQueryService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<SessionDto> findAll() {
+        return this.databaseClient.sql(SELECT_WITH_PARTICIPANTS)
+                .map((row, metadata) -> toDto(row))
+                .all()
+                .bufferUntilChanged(SessionDto::getId)
+                .map(ReactiveSessionQueryService::merge);
+    }
+
+    private static SessionDto toDto(Row row) {
+        List<Long> users = new ArrayList<>();
+        Long userId = getLong(row, "user_id");
+        if (userId != null) {
+            users.add(userId);
+        }
+        LocalDateTime date = row.get("date", LocalDateTime.class);
+
+        SessionDto session = new SessionDto();
+        session.setId(getLong(row, "id"));
+        session.setName(row.get("name", String.class));
+        session.setDate(date != null ? Timestamp.valueOf(date) : null);
+        session.setTeacher_id(getLong(row, "teacher_id"));
+        session.setDescription(row.get("description", String.class));
+        session.setCapacity(row.get("capacity", Integer.class));
+        session.setUsers(users);
+        session.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        session.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return session;
+    }
+
+    private static SessionDto merge(List<SessionDto> rows) {
+        SessionDto session = rows.get(0);
+        for (int i = 1; i < rows.size(); i++) {
+            session.getUsers().addAll(rows.get(i).getUsers());
+        }
+        return session;
+    }
+}
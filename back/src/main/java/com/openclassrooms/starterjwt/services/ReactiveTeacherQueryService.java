@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+import static com.openclassrooms.starterjwt.services.R2dbcRows.getLong;
+
+@Service
+@ConditionalOnProperty(name = "oc.app.reactiveReads", havingValue = "true")
+public class ReactiveTeacherQueryService {
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTeacherQueryService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<TeacherDto> findAll() {
+        return this.databaseClient.sql("SELECT id, last_name, first_name, created_at, updated_at FROM TEACHERS ORDER BY id")
+                .map((row, metadata) -> new TeacherDto(
+                        getLong(row, "id"),
+                        row.get("last_name", String.class),
+                        row.get("first_name", String.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("updated_at", LocalDateTime.class)))
+                .all();
+    }
+}
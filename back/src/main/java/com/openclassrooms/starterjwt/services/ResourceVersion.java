@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Validators for a conditional GET, computed from {@code updated_at} so that an
+ * unchanged resource can be answered with a 304 before it is loaded.
+ */
+@Getter
+@AllArgsConstructor
+public class ResourceVersion {
+    private final String eTag;
+
+    // Epoch millis, or -1 when unknown; not sent for collections, see CollectionVersion
+    private final long lastModified;
+
+    public static ResourceVersion of(CollectionVersion version) {
+        return new ResourceVersion(version.getTotal() + "-" + toEpochMicros(version.getLastModified()),
+                toEpochMillis(version.getLastModified()));
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime != null
+                ? ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime)
+                : 0;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null
+                ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed {@link SessionEventDto}s out to the open SSE connections. Each
+ * connection has its own bounded queue, drained by a small shared pool, so a slow
+ * client only delays itself. A client whose queue overflows loses its pending events
+ * and is sent a single RESYNC instead.
+ */
+@Component
+public class SessionEventStream implements DisposableBean {
+    private static final SessionEventDto HEARTBEAT = new SessionEventDto();
+
+    private final long timeoutMs;
+
+    private final int bufferSize;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders;
+
+    public SessionEventStream(@Value("${oc.app.sseTimeoutMs:1800000}") long timeoutMs,
+                              @Value("${oc.app.sseBufferSize:64}") int bufferSize,
+                              @Value("${oc.app.sseSenderThreads:2}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.senders = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("sse-"));
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(this.timeoutMs));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, this.bufferSize);
+        emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> this.subscribers.remove(subscriber));
+        emitter.onError(e -> this.subscribers.remove(subscriber));
+        this.subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionEvent(SessionEventDto event) {
+        this.subscribers.forEach(subscriber -> offer(subscriber, event));
+    }
+
+    @Scheduled(fixedRateString = "${oc.app.sseHeartbeatMs:15000}")
+    public void heartbeat() {
+        this.subscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT));
+    }
+
+    int subscriberCount() {
+        return this.subscribers.size();
+    }
+
+    private void offer(Subscriber subscriber, SessionEventDto event) {
+        if (!subscriber.queue.offer(event)) {
+            subscriber.queue.clear();
+            subscriber.queue.offer(SessionEventDto.of(SessionEventDto.Type.RESYNC, null));
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            this.senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SessionEventDto event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(toSse(event));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone, or the emitter already completed
+            this.subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // An event may have been queued after the last poll but before the flag was reset
+        if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            this.senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(SessionEventDto event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return SseEmitter.event()
+                .name(event.getType().name().toLowerCase(Locale.ROOT))
+                .data(event);
+    }
+
+    @Override
+    public void destroy() {
+        this.senders.shutdownNow();
+        this.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        this.subscribers.clear();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<SessionEventDto> queue;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.repository.SessionExportRow;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every session and its participants to an output stream while reading them,
+ * so memory use does not depend on the number of sessions.
+ */
+@Service
+public class SessionExportService {
+    public enum Format {
+        // One session per line, with its participant ids
+        NDJSON,
+        // One line per participation, sessions without participants have an empty user_id
+        CSV
+    }
+
+    private static final String CSV_HEADER = "session_id,name,date,teacher_id,description,capacity,user_id";
+
+    private final SessionRepository sessionRepository;
+
+    private final SessionMapper sessionMapper;
+
+    private final ObjectMapper objectMapper;
+
+    public SessionExportService(SessionRepository sessionRepository,
+                                SessionMapper sessionMapper,
+                                ObjectMapper objectMapper) {
+        this.sessionRepository = sessionRepository;
+        this.sessionMapper = sessionMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<SessionExportRow> rows = this.sessionRepository.streamExportRows()) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<SessionExportRow> rows, Writer writer) throws IOException {
+        SessionDto session = null;
+        while (rows.hasNext()) {
+            SessionExportRow row = rows.next();
+            if (session == null || !session.getId().equals(row.getId())) {
+                if (session != null) {
+                    writeLine(session, writer);
+                }
+                session = this.sessionMapper.toDto(row, new ArrayList<>());
+            }
+            if (row.getUserId() != null) {
+                session.getUsers().add(row.getUserId());
+            }
+        }
+        if (session != null) {
+            writeLine(session, writer);
+        }
+    }
+
+    private void writeLine(SessionDto session, Writer writer) throws IOException {
+        writer.write(this.objectMapper.writeValueAsString(session));
+        writer.write('\n');
+    }
+
+    private void writeCsv(Iterator<SessionExportRow> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            SessionExportRow row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(csv(row.getName()));
+            writer.write(',');
+            writer.write(row.getDate() != null ? row.getDate().toInstant().toString() : "");
+            writer.write(',');
+            writer.write(row.getTeacherId() != null ? String.valueOf(row.getTeacherId()) : "");
+            writer.write(',');
+            writer.write(csv(row.getDescription()));
+            writer.write(',');
+            writer.write(row.getCapacity() != null ? String.valueOf(row.getCapacity()) : "");
+            writer.write(',');
+            writer.write(row.getUserId() != null ? String.valueOf(row.getUserId()) : "");
+            writer.write('\n');
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Spreadsheets would run a leading =, +, -, @, tab or CR as a formula
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,250 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import com.openclassrooms.starterjwt.dto.SessionImportReportDto;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many sessions at once. Rows are validated and their teacher and user ids
+ * checked with a few IN queries, then inserted with JDBC batches, one transaction
+ * per chunk. A chunk the database rejects is replayed row by row, so a single bad
+ * row only fails itself.
+ */
+@Service
+public class SessionImportService {
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SESSION =
+            "INSERT INTO SESSIONS (name, description, date, teacher_id, capacity) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PARTICIPATION = "INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)";
+
+    private final Validator validator;
+
+    private final TeacherRepository teacherRepository;
+
+    private final UserRepository userRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int chunkSize;
+
+    public SessionImportService(Validator validator,
+                                TeacherRepository teacherRepository,
+                                UserRepository userRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                EntityManagerFactory entityManagerFactory,
+                                @Value("${oc.app.importChunkSize:500}") int chunkSize) {
+        this.validator = validator;
+        this.teacherRepository = teacherRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+    }
+
+    public SessionImportReportDto importSessions(List<SessionDto> sessions) {
+        Map<Integer, List<String>> errors = new TreeMap<>();
+        validate(sessions, errors);
+        checkReferences(sessions, errors);
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int index = 0; index < sessions.size(); index++) {
+            if (!errors.containsKey(index)) {
+                accepted.add(index);
+            }
+        }
+
+        Long[] ids = new Long[sessions.size()];
+        for (int from = 0; from < accepted.size(); from += this.chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + this.chunkSize, accepted.size()));
+            try {
+                insert(sessions, chunk, ids);
+            } catch (DataAccessException e) {
+                for (Integer index : chunk) {
+                    try {
+                        insert(sessions, Collections.singletonList(index), ids);
+                    } catch (DataAccessException rowError) {
+                        errors.put(index, Collections.singletonList(
+                                "could not be saved: " + rowError.getMostSpecificCause().getMessage()));
+                    }
+                }
+            }
+        }
+
+        // The rows were written behind Hibernate's back, so cached session queries are stale
+        this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        List<SessionImportReportDto.RowError> rowErrors = errors.entrySet().stream()
+                .map(entry -> new SessionImportReportDto.RowError(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        return new SessionImportReportDto(sessions.size() - rowErrors.size(), Arrays.asList(ids), rowErrors);
+    }
+
+    private void validate(List<SessionDto> sessions, Map<Integer, List<String>> errors) {
+        for (int index = 0; index < sessions.size(); index++) {
+            SessionDto session = sessions.get(index);
+            if (session == null) {
+                errors.put(index, Collections.singletonList("must not be null"));
+                continue;
+            }
+
+            for (ConstraintViolation<SessionDto> violation : this.validator.validate(session)) {
+                addError(errors, index, violation.getPropertyPath() + " " + violation.getMessage());
+            }
+            if (session.getUsers() != null && session.getUsers().contains(null)) {
+                addError(errors, index, "users must not contain null");
+            }
+            if (session.getUsers() != null && session.getCapacity() != null
+                    && new LinkedHashSet<>(session.getUsers()).size() > session.getCapacity()) {
+                addError(errors, index, "users must not exceed capacity " + session.getCapacity());
+            }
+        }
+    }
+
+    private void checkReferences(List<SessionDto> sessions, Map<Integer, List<String>> errors) {
+        Set<Long> teacherIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (int index = 0; index < sessions.size(); index++) {
+            if (errors.containsKey(index)) {
+                continue;
+            }
+            teacherIds.add(sessions.get(index).getTeacher_id());
+            if (sessions.get(index).getUsers() != null) {
+                userIds.addAll(sessions.get(index).getUsers());
+            }
+        }
+
+        Set<Long> knownTeachers = findExisting(teacherIds, this.teacherRepository::findExistingIds);
+        Set<Long> knownUsers = findExisting(userIds, this.userRepository::findExistingIds);
+        for (int index = 0; index < sessions.size(); index++) {
+            if (errors.containsKey(index)) {
+                continue;
+            }
+            SessionDto session = sessions.get(index);
+            if (!knownTeachers.contains(session.getTeacher_id())) {
+                addError(errors, index, "teacher_id " + session.getTeacher_id() + " does not exist");
+            }
+            if (session.getUsers() != null) {
+                for (Long userId : new LinkedHashSet<>(session.getUsers())) {
+                    if (!knownUsers.contains(userId)) {
+                        addError(errors, index, "user " + userId + " does not exist");
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<Long> findExisting(Set<Long> ids, Function<Collection<Long>, List<Long>> query) {
+        List<Long> all = new ArrayList<>(ids);
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK_SIZE) {
+            existing.addAll(query.apply(all.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, all.size()))));
+        }
+        return existing;
+    }
+
+    private void insert(List<SessionDto> sessions, List<Integer> chunk, Long[] ids) {
+        List<SessionDto> rows = chunk.stream().map(sessions::get).collect(Collectors.toList());
+        List<Long> keys = this.transactionTemplate.execute(status -> {
+            List<Long> generated = insertSessions(rows);
+
+            List<Object[]> participations = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).getUsers() != null) {
+                    for (Long userId : new LinkedHashSet<>(rows.get(i).getUsers())) {
+                        participations.add(new Object[]{generated.get(i), userId});
+                    }
+                }
+            }
+            if (!participations.isEmpty()) {
+                this.jdbcTemplate.batchUpdate(INSERT_PARTICIPATION, participations);
+            }
+
+            generated.forEach(id -> this.eventPublisher.publishEvent(SessionEventDto.of(SessionEventDto.Type.CREATED, id)));
+            return generated;
+        });
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ids[chunk.get(i)] = keys.get(i);
+        }
+    }
+
+    private List<Long> insertSessions(List<SessionDto> rows) {
+        return this.jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SESSION, Statement.RETURN_GENERATED_KEYS)) {
+                for (SessionDto row : rows) {
+                    statement.setString(1, row.getName());
+                    statement.setString(2, row.getDescription());
+                    statement.setTimestamp(3, new Timestamp(row.getDate().getTime()));
+                    statement.setLong(4, row.getTeacher_id());
+                    if (row.getCapacity() != null) {
+                        statement.setInt(5, row.getCapacity());
+                    } else {
+                        statement.setNull(5, Types.INTEGER);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> keys = new ArrayList<>(rows.size());
+                try (ResultSet generated = statement.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        keys.add(generated.getLong(1));
+                    }
+                }
+                if (keys.size() != rows.size()) {
+                    throw new IncorrectResultSizeDataAccessException(rows.size(), keys.size());
+                }
+                return keys;
+            }
+        });
+    }
+
+    private static void addError(Map<Integer, List<String>> errors, int index, String message) {
+        errors.computeIfAbsent(index, k -> new ArrayList<>()).add(message);
+    }
+}
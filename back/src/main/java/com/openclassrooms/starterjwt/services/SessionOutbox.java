@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records each published {@link SessionEventDto} in OUTBOX_EVENTS, inside the
+ * transaction of the change itself: the event is stored if and only if the change
+ * commits. By then the change holds the session's row lock: a creation owns its new
+ * row, while updates, deletes and participation changes take it with
+ * {@code SessionRepository.findByIdForUpdate}. Events of one session therefore get
+ * ids in commit order.
+ */
+@Component
+public class SessionOutbox {
+    private final OutboxEventRepository outboxEventRepository;
+
+    public SessionOutbox(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(SessionEventDto event) {
+        this.outboxEventRepository.save(new OutboxEvent()
+                .setType(event.getType())
+                .setSessionId(event.getSessionId())
+                .setUserId(event.getUserId())
+                .setCreatedAt(LocalDateTime.now()));
+    }
+}
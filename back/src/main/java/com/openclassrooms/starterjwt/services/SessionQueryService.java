@@ -0,0 +1,106 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the sessions: builds {@link SessionDto}s from column projections and
+ * participant id lists, without hydrating {@code Session} or {@code User} entities.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SessionQueryService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final SessionRepository sessionRepository;
+
+    private final ParticipationRepository participationRepository;
+
+    private final SessionMapper sessionMapper;
+
+    public SessionQueryService(SessionRepository sessionRepository,
+                               ParticipationRepository participationRepository,
+                               SessionMapper sessionMapper) {
+        this.sessionRepository = sessionRepository;
+        this.participationRepository = participationRepository;
+        this.sessionMapper = sessionMapper;
+    }
+
+    public ResourceVersion findVersion(Long id) {
+        CollectionVersion version = this.sessionRepository.findVersionById(id);
+        return version.getTotal() > 0 ? ResourceVersion.of(version) : null;
+    }
+
+    public ResourceVersion findVersion() {
+        return ResourceVersion.of(this.sessionRepository.findVersion());
+    }
+
+    public SessionDto findById(Long id) {
+        return this.sessionRepository.findSummaryById(id)
+                .map(summary -> toDtos(Collections.singletonList(summary)).get(0))
+                .orElse(null);
+    }
+
+    public List<SessionDto> findAll() {
+        List<SessionSummary> summaries = this.sessionRepository.findAllSummaries();
+
+        return toDtos(summaries, this.participationRepository.findAllParticipants());
+    }
+
+    public SessionPageDto findPage(SessionCursor after, Date from, Date to, int size) {
+        Pageable pageable = PageRequest.of(0, Math.min(size, MAX_PAGE_SIZE));
+        Slice<SessionSummary> page = after == null
+                ? this.sessionRepository.findFirstPage(from, to, pageable)
+                : this.sessionRepository.findPageAfter(after.getDate(), after.getId(), from, to, pageable);
+
+        List<SessionSummary> summaries = page.getContent();
+        String nextCursor = null;
+        if (page.hasNext()) {
+            SessionSummary last = summaries.get(summaries.size() - 1);
+            nextCursor = new SessionCursor(last.getDate(), last.getId()).encode();
+        }
+
+        return new SessionPageDto(toDtos(summaries), nextCursor);
+    }
+
+    private List<SessionDto> toDtos(List<SessionSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = summaries.stream().map(SessionSummary::getId).collect(Collectors.toList());
+
+        return toDtos(summaries, this.participationRepository.findParticipants(ids));
+    }
+
+    private List<SessionDto> toDtos(List<SessionSummary> summaries, List<SessionParticipant> participants) {
+        Map<Long, List<Long>> usersBySession = new HashMap<>();
+        for (SessionParticipant participant : participants) {
+            usersBySession.computeIfAbsent(participant.getSessionId(), k -> new ArrayList<>()).add(participant.getUserId());
+        }
+
+        return summaries.stream()
+                .map(summary -> this.sessionMapper.toDto(summary, usersBySession.getOrDefault(summary.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,33 +1,44 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
-import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityNotFoundException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
     private final SessionRepository sessionRepository;
 
-    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    public SessionService(SessionRepository sessionRepository, ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
-        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        checkCapacity(session);
+        Session created = save(session);
+        this.eventPublisher.publishEvent(SessionEventDto.of(SessionEventDto.Type.CREATED, created.getId()));
+        return created;
     }
 
+    @Transactional
     public void delete(Long id) {
-        this.sessionRepository.deleteById(id);
+        // Locked like every other change, so that the outbox records its event in commit order
+        Session session = this.sessionRepository.findByIdForUpdate(id).orElseThrow(NotFoundException::new);
+        this.sessionRepository.delete(session);
+        this.eventPublisher.publishEvent(SessionEventDto.of(SessionEventDto.Type.DELETED, id));
     }
 
     public List<Session> findAll() {
@@ -38,41 +49,33 @@ public class SessionService {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     public Session update(Long id, Session session) {
+        // Locked first, so that no booking can slip in between the capacity check and the
+        // save, and so that the outbox records the event in commit order
+        this.sessionRepository.findByIdForUpdate(id).orElseThrow(NotFoundException::new);
+        checkCapacity(session);
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = save(session);
+        this.eventPublisher.publishEvent(SessionEventDto.of(SessionEventDto.Type.UPDATED, id));
+        return updated;
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
-            throw new NotFoundException();
-        }
-
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+    private static void checkCapacity(Session session) {
+        if (session.getCapacity() != null && session.getUsers() != null
+                && session.getUsers().size() > session.getCapacity()) {
             throw new BadRequestException();
         }
-
-        session.getUsers().add(user);
-
-        this.sessionRepository.save(session);
     }
 
-    public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
-            throw new NotFoundException();
-        }
-
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+    // The teacher is only a reference: an unknown teacher id surfaces as a foreign key
+    // violation on insert, and as a failed lookup when an update merges the reference.
+    // Flushed here, so that constraint violations are raised inside the catch, not at commit
+    private Session save(Session session) {
+        try {
+            return this.sessionRepository.saveAndFlush(session);
+        } catch (DataIntegrityViolationException | JpaObjectRetrievalFailureException | EntityNotFoundException e) {
             throw new BadRequestException();
         }
-
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
-
-        this.sessionRepository.save(session);
     }
 }
@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.config.HibernateCacheConfig;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Participations are written through their own entity, which Hibernate does not
+ * relate to the cached {@code Session.users} collection. Inserts must evict it
+ * here; bulk deletes already clear the whole region.
+ */
+@Component
+public class SessionUsersCache {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SessionUsersCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Evicts now and again once the transaction has committed, so that a reader
+     * that loaded the collection in between cannot leave it stale.
+     */
+    public void evictAfterCommit(Long sessionId) {
+        evict(sessionId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(sessionId);
+            }
+        });
+    }
+
+    private void evict(Long sessionId) {
+        this.entityManagerFactory.getCache().unwrap(Cache.class)
+                .evictCollectionData(HibernateCacheConfig.SESSION_USERS_REGION, sessionId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +19,24 @@ public class TeacherService {
         return this.teacherRepository.findAll();
     }
 
+    public ResourceVersion findVersion(Long id) {
+        CollectionVersion version = this.teacherRepository.findVersionById(id);
+        return version.getTotal() > 0 ? ResourceVersion.of(version) : null;
+    }
+
+    public ResourceVersion findVersion() {
+        return ResourceVersion.of(this.teacherRepository.findVersion());
+    }
+
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Returns an uninitialized proxy, for callers that only need the teacher as a
+     * foreign key. The id is not checked here.
+     */
+    public Teacher getReference(Long id) {
+        return this.teacherRepository.getById(id);
+    }
 }
@@ -2,21 +2,36 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.security.jwt.TokenDenylist;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final JwtTokenCache jwtTokenCache;
+    private final TokenDenylist tokenDenylist;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, JwtTokenCache jwtTokenCache, TokenDenylist tokenDenylist) {
         this.userRepository = userRepository;
+        this.jwtTokenCache = jwtTokenCache;
+        this.tokenDenylist = tokenDenylist;
     }
 
     public void delete(Long id) {
         this.userRepository.deleteById(id);
+        this.jwtTokenCache.evictUser(id);
+        this.tokenDenylist.revokeUser(id);
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    public List<User> findAllById(Collection<Long> ids) {
+        return this.userRepository.findAllById(ids);
+    }
 }
@@ -0,0 +1,70 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Ordered waitlist of the most recently read sessions. The WAITLIST table stays the
+ * source of truth: entries are only dropped once the writing transaction has committed,
+ * and a load racing with such an eviction is returned without being cached.
+ */
+@Component
+public class WaitlistCache {
+    private static final int MAX_SESSIONS = 256;
+
+    private final Map<Long, List<Long>> queues = new LinkedHashMap<Long, List<Long>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<Long>> eldest) {
+            return size() > MAX_SESSIONS;
+        }
+    };
+
+    private long evictions = 0;
+
+    public List<Long> get(Long sessionId, Supplier<List<Long>> loader) {
+        long evictionsBeforeLoad;
+        synchronized (this.queues) {
+            List<Long> queue = this.queues.get(sessionId);
+            if (queue != null) {
+                return queue;
+            }
+            evictionsBeforeLoad = this.evictions;
+        }
+
+        List<Long> queue = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        synchronized (this.queues) {
+            if (this.evictions == evictionsBeforeLoad) {
+                this.queues.put(sessionId, queue);
+            }
+        }
+        return queue;
+    }
+
+    public void evictAfterCommit(Long sessionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(sessionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(sessionId);
+            }
+        });
+    }
+
+    void evict(Long sessionId) {
+        synchronized (this.queues) {
+            this.evictions++;
+            this.queues.remove(sessionId);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class WaitlistService {
+    static final int MAX_PROMOTION_BATCH = 100;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final ParticipationRepository participationRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final WaitlistCache waitlistCache;
+
+    private final SessionUsersCache sessionUsersCache;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           ParticipationRepository participationRepository,
+                           SessionRepository sessionRepository,
+                           UserRepository userRepository,
+                           WaitlistCache waitlistCache,
+                           SessionUsersCache sessionUsersCache) {
+        this.waitlistRepository = waitlistRepository;
+        this.participationRepository = participationRepository;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.waitlistCache = waitlistCache;
+        this.sessionUsersCache = sessionUsersCache;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findQueue(Long id) {
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        }
+
+        return this.waitlistCache.get(id, () -> this.waitlistRepository.findUserIdsBySessionId(id));
+    }
+
+    @Transactional
+    public void join(Long id, Long userId) {
+        Session session = this.sessionRepository.findByIdForUpdate(id).orElse(null);
+        if (session == null || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        if (this.participationRepository.existsBySessionIdAndUserId(id, userId)
+                || this.waitlistRepository.existsBySessionIdAndUserId(id, userId)) {
+            throw new BadRequestException();
+        }
+
+        // Only full sessions have a waitlist, otherwise the user should simply participate
+        if (freeSeats(session) > 0) {
+            throw new BadRequestException();
+        }
+
+        try {
+            this.waitlistRepository.saveAndFlush(new WaitlistEntry().setSessionId(id).setUserId(userId));
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException();
+        }
+        this.waitlistCache.evictAfterCommit(id);
+    }
+
+    @Transactional
+    public void leave(Long id, Long userId) {
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        }
+
+        if (this.waitlistRepository.deleteBySessionIdAndUserId(id, userId) == 0) {
+            throw new BadRequestException();
+        }
+        this.waitlistCache.evictAfterCommit(id);
+    }
+
+    /**
+     * Drops the user from the waitlist when they got a seat without being promoted.
+     */
+    @Transactional
+    public void remove(Long id, Long userId) {
+        if (this.waitlistRepository.deleteBySessionIdAndUserId(id, userId) > 0) {
+            this.waitlistCache.evictAfterCommit(id);
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #remove(Long, Long)}.
+     */
+    @Transactional
+    public void removeAll(Long id, Collection<Long> userIds) {
+        if (this.waitlistRepository.deleteBySessionIdAndUserIdIn(id, userIds) > 0) {
+            this.waitlistCache.evictAfterCommit(id);
+        }
+    }
+
+    /**
+     * Moves the head of the waitlist into the free seats of the session, in the
+     * caller's transaction. The caller must hold the session row lock
+     * ({@code SessionRepository.findByIdForUpdate}) so that concurrent cancellations
+     * and bookings of the same session are applied one after the other.
+     */
+    @Transactional
+    public List<Long> promote(Session session) {
+        if (!this.waitlistRepository.existsBySessionId(session.getId())) {
+            return Collections.emptyList();
+        }
+
+        int seats = Math.min(freeSeats(session), MAX_PROMOTION_BATCH);
+        if (seats <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<WaitlistEntry> promoted = this.waitlistRepository.findBySessionIdOrderByIdAsc(session.getId(), PageRequest.of(0, seats));
+        this.participationRepository.saveAll(promoted.stream()
+                .map(entry -> new Participation(entry.getSessionId(), entry.getUserId()))
+                .collect(Collectors.toList()));
+        this.waitlistRepository.deleteAllInBatch(promoted);
+        this.waitlistCache.evictAfterCommit(session.getId());
+        this.sessionUsersCache.evictAfterCommit(session.getId());
+
+        return promoted.stream().map(WaitlistEntry::getUserId).collect(Collectors.toList());
+    }
+
+    private int freeSeats(Session session) {
+        if (session.getCapacity() == null) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.max(0, session.getCapacity() - this.participationRepository.countBySessionId(session.getId()));
+    }
+}
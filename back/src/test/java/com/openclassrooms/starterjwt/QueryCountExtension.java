@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import com.openclassrooms.starterjwt.config.QueryCounter;
+
+/**
+ * Counts the SQL statements run on the test thread, MockMvc requests included.
+ * Counting starts after the @Sql scripts, so with
+ * {@code @RegisterExtension QueryCountExtension queries = new QueryCountExtension();}
+ * a test can call {@link #reset()} once its data is set up and then bound the
+ * endpoint under test with {@link #assertAtMost(long)}.
+ */
+public class QueryCountExtension implements BeforeEachCallback {
+  private long start;
+
+  @Override
+  public void beforeEach(ExtensionContext context) {
+    reset();
+  }
+
+  public void reset() {
+    start = QueryCounter.current();
+  }
+
+  public long count() {
+    return QueryCounter.current() - start;
+  }
+
+  public void assertAtMost(long max) {
+    long count = count();
+    assertThat(count).as("SQL statements run, at most %d expected", max).isLessThanOrEqualTo(max);
+  }
+}
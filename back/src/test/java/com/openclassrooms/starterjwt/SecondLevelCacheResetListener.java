@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.jdbc.SqlScriptsTestExecutionListener;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * The integration tests reload the schema with plain SQL scripts, which Hibernate
+ * does not see. Clears the second-level cache once the scripts have run so that no
+ * entry from a previous test survives.
+ */
+public class SecondLevelCacheResetListener extends AbstractTestExecutionListener {
+
+  @Override
+  public int getOrder() {
+    return new SqlScriptsTestExecutionListener().getOrder() + 1;
+  }
+
+  @Override
+  public void beforeTestMethod(TestContext testContext) {
+    if (!testContext.hasApplicationContext()) {
+      return;
+    }
+    ApplicationContext applicationContext = testContext.getApplicationContext();
+    if (applicationContext.getBeanNamesForType(EntityManagerFactory.class).length > 0) {
+      applicationContext.getBean(EntityManagerFactory.class).getCache().unwrap(Cache.class).evictAllRegions();
+    }
+  }
+}
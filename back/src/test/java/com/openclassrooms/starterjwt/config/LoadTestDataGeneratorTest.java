@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class LoadTestDataGeneratorTest {
+  private SingleConnectionDataSource dataSource;
+
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:h2:mem:loadtest;MODE=MySQL", "sa", "", true);
+    ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+        new FileSystemResource("../ressources/sql/script.sql"));
+    populator.setSqlScriptEncoding(StandardCharsets.UTF_8.name());
+    populator.execute(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  public void testGenerate_SeedsOnTopOfScript() {
+    // GIVEN
+    LoadTestDataGenerator generator = generator(42);
+
+    // WHEN
+    generator.generate();
+
+    // THEN
+    assertEquals(2 + 5, count("TEACHERS"));
+    assertEquals(1 + 30, count("USERS"));
+    assertEquals(20, count("SESSIONS"));
+    assertEquals(20 * 4, count("PARTICIPATE"));
+    assertEquals(20 * 4, (int) jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM (SELECT DISTINCT session_id, user_id FROM PARTICIPATE) p", Integer.class));
+    String hash = jdbcTemplate.queryForObject("SELECT password FROM USERS WHERE email = 'user30@studio.com'", String.class);
+    assertTrue(new BCryptPasswordEncoder().matches("test!1234", hash));
+  }
+
+  @Test
+  public void testGenerate_SameSeedSameData() {
+    // GIVEN
+    generator(7).generate();
+    List<Map<String, Object>> first = snapshot();
+    tearDown();
+    setUp();
+
+    // WHEN
+    generator(7).generate();
+
+    // THEN
+    assertEquals(first, snapshot());
+  }
+
+  private LoadTestDataGenerator generator(long seed) {
+    return new LoadTestDataGenerator(jdbcTemplate, new BCryptPasswordEncoder(4), seed, 5, 30, 20, 4, "test!1234");
+  }
+
+  private int count(String table) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+  }
+
+  private List<Map<String, Object>> snapshot() {
+    return jdbcTemplate.queryForList("SELECT s.name, s.date, s.teacher_id, s.capacity, p.user_id"
+        + " FROM SESSIONS s LEFT JOIN PARTICIPATE p ON p.session_id = s.id ORDER BY s.id, p.user_id");
+  }
+}
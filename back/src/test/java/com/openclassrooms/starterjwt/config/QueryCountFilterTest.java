@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+
+public class QueryCountFilterTest {
+  private final QueryCounter queryCounter = new QueryCounter();
+
+  @Test
+  public void testFilter_HeaderEnabled_SetsCountBeforeCommit() throws Exception {
+    // GIVEN
+    QueryCountFilter filter = new QueryCountFilter(20, true);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    FilterChain chain = (req, res) -> {
+      runQueries(2);
+      res.getWriter().write("[]");
+      res.flushBuffer();
+      runQueries(1);
+    };
+
+    // WHEN
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), response, chain);
+
+    // THEN
+    assertThat(response.getHeader(QueryCountFilter.HEADER)).isEqualTo("2");
+  }
+
+  @Test
+  public void testFilter_HeaderEnabled_EmptyBody_SetsCount() throws Exception {
+    // GIVEN
+    QueryCountFilter filter = new QueryCountFilter(20, true);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // WHEN
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), response, (req, res) -> runQueries(4));
+
+    // THEN
+    assertThat(response.getHeader(QueryCountFilter.HEADER)).isEqualTo("4");
+  }
+
+  @Test
+  public void testFilter_HeaderDisabled_NoHeader() throws Exception {
+    // GIVEN
+    QueryCountFilter filter = new QueryCountFilter(20, false);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // WHEN
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), response, (req, res) -> runQueries(4));
+
+    // THEN
+    assertThat(response.getHeader(QueryCountFilter.HEADER)).isNull();
+  }
+
+  private void runQueries(int count) {
+    for (int i = 0; i < count; i++) {
+      queryCounter.afterQuery(new ExecutionInfo(), Collections.emptyList());
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+public class SlowQueryLoggerTest {
+
+  @Test
+  public void testRedact_ReplacesLiterals() {
+    // WHEN
+    String sql = SlowQueryLogger.redact("select * from USERS u0_\n  where email = 'o''brien@studio.com' and id > 10");
+
+    // THEN
+    assertThat(sql).isEqualTo("select * from USERS u0_ where email = ? and id > ?");
+  }
+
+  @Test
+  public void testFormat_CountsParametersWithoutValues() throws Exception {
+    // GIVEN
+    ExecutionInfo execInfo = new ExecutionInfo();
+    execInfo.setElapsedTime(250);
+    execInfo.setSuccess(true);
+    execInfo.setStatementType(StatementType.PREPARED);
+    execInfo.setConnectionId("7");
+    QueryInfo queryInfo = new QueryInfo("select * from USERS where email = ? and password = ?");
+    queryInfo.getParametersList().add(Arrays.asList(
+        new ParameterSetOperation(null, new Object[] { 1, "yoga@studio.com" }),
+        new ParameterSetOperation(null, new Object[] { 2, "$2a$10$hash" })));
+
+    // WHEN
+    String line = SlowQueryLogger.format("slow", execInfo, Collections.singletonList(queryInfo));
+
+    // THEN
+    assertThat(line).isEqualTo("query=slow elapsedMs=250 success=true type=PREPARED batchSize=0 params=2 connection=7"
+        + " sql=\"select * from USERS where email = ? and password = ?\"");
+    assertThat(line).doesNotContain("yoga@studio.com").doesNotContain("$2a$10$hash");
+  }
+}
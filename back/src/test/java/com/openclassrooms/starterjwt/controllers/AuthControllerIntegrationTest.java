@@ -1,12 +1,15 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -15,6 +18,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openclassrooms.starterjwt.repository.UserRepository;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -24,6 +28,12 @@ public class AuthControllerIntegrationTest {
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
   ObjectMapper ObjMapper = new ObjectMapper();
 
   @Test
@@ -34,13 +44,46 @@ public class AuthControllerIntegrationTest {
     requestBody.put("password", "test!1234");
 
     // Perform an HTTP POST request to the /api/auth/register endpoint with the JSON
-    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
         .contentType(MediaType.APPLICATION_JSON)
         .content(ObjMapper.writeValueAsString(requestBody)))
+        .andExpect(request().asyncStarted())
         .andReturn();
+    // The password is checked on the login pool, the response comes with the async dispatch
+    MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
     assertThat(result.getResponse().getStatus()).isEqualTo(200);
   }
 
+  @Test
+  public void testAuthenticateUser_wrongPassword_returnUnauthorized() throws Exception {
+    ObjectNode requestBody = ObjMapper.createObjectNode();
+    requestBody.put("email", "yoga@studio.com");
+    requestBody.put("password", "wrong");
+
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(ObjMapper.writeValueAsString(requestBody)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void testAuthenticateUser_legacyHash_rehashedOnLogin() throws Exception {
+    // GIVEN the seeded hash has no {id} prefix
+    assertThat(userRepository.findByEmail("yoga@studio.com").get().getPassword()).startsWith("$2a$");
+
+    // WHEN
+    login("yoga@studio.com");
+
+    // THEN
+    String password = userRepository.findByEmail("yoga@studio.com").get().getPassword();
+    assertThat(password).startsWith("{bcrypt}");
+    assertThat(passwordEncoder.matches("test!1234", password)).isTrue();
+  }
+
   @Test
   public void testRegisterUser() throws Exception {
     // Create a JSON request body with user information
@@ -80,4 +123,57 @@ public class AuthControllerIntegrationTest {
     assertThat(responseContent).contains("Error: Email is already taken!");
   }
 
+  @Test
+  public void testBearerToken_userDeleted_tokenNoLongerAccepted() throws Exception {
+    // GIVEN a token for user 2, already used once so that it is cached
+    String bearer = "Bearer " + login("toto@todo.com");
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", bearer))
+        .andExpect(status().isOk());
+
+    // WHEN the user deletes their account
+    mockMvc.perform(MockMvcRequestBuilders.delete("/api/user/2").header("Authorization", bearer))
+        .andExpect(status().isOk());
+
+    // THEN the cached token is dropped with the account
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", bearer))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void testLogout_tokenNoLongerAccepted() throws Exception {
+    // GIVEN
+    String bearer = "Bearer " + login("yoga@studio.com");
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", bearer))
+        .andExpect(status().isOk());
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/logout").header("Authorization", bearer))
+        .andExpect(status().isOk());
+
+    // THEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", bearer))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void testLogout_noToken_returnBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/logout"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private String login(String email) throws Exception {
+    ObjectNode requestBody = ObjMapper.createObjectNode();
+    requestBody.put("email", email);
+    requestBody.put("password", "test!1234");
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(ObjMapper.writeValueAsString(requestBody)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MvcResult login = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andReturn();
+    return ObjMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+  }
 }
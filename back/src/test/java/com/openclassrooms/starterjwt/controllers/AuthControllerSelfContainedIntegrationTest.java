@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+
+@SpringBootTest(properties = "oc.app.jwtSelfContained=true")
+@AutoConfigureMockMvc
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:rollback.sql")
+public class AuthControllerSelfContainedIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @SpyBean
+  private UserDetailsServiceImpl userDetailsService;
+
+  ObjectMapper ObjMapper = new ObjectMapper();
+
+  @Test
+  public void testBearerToken_authenticatesFromClaims() throws Exception {
+    // GIVEN
+    String bearer = "Bearer " + login("yoga@studio.com");
+    clearInvocations(userDetailsService);
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", bearer))
+        .andExpect(status().isOk());
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/user/1").header("Authorization", bearer))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.admin").value(true));
+
+    // THEN the user is never loaded from the database
+    verify(userDetailsService, never()).loadUserByUsername(anyString());
+  }
+
+  @Test
+  public void testBearerToken_userDeleted_tokenNoLongerAccepted() throws Exception {
+    // GIVEN
+    String bearer = "Bearer " + login("toto@todo.com");
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.delete("/api/user/2").header("Authorization", bearer))
+        .andExpect(status().isOk());
+
+    // THEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", bearer))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private String login(String email) throws Exception {
+    ObjectNode requestBody = ObjMapper.createObjectNode();
+    requestBody.put("email", email);
+    requestBody.put("password", "test!1234");
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(ObjMapper.writeValueAsString(requestBody)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MvcResult login = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andReturn();
+    return ObjMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+  }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:rollback.sql")
+public class MetricsIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  ObjectMapper ObjMapper = new ObjectMapper();
+
+  @Test
+  public void testLoginAndFindAll_RecordsTimers() throws Exception {
+    // GIVEN
+    String bearer = "Bearer " + login();
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .header(HttpHeaders.AUTHORIZATION, bearer))
+        .andExpect(status().isOk());
+
+    // THEN
+    assertThat(meterRegistry.find("auth.password.check").tag("outcome", "match").timer().count()).isPositive();
+    assertThat(meterRegistry.find("auth.jwt.validation").tag("outcome", "accepted").timer().count()).isPositive();
+    assertThat(meterRegistry.find("service.invocations")
+        .tags("service", "SessionQueryService", "method", "findAll", "exception", "none")
+        .timer().count()).isPositive();
+    assertThat(meterRegistry.find("spring.data.repository.invocations")
+        .tag("repository", "UserRepository").timer()).isNotNull();
+  }
+
+  @Test
+  public void testPrometheus_WithToken_ReturnsScrape() throws Exception {
+    // GIVEN
+    String bearer = "Bearer " + login();
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/teacher")
+        .header(HttpHeaders.AUTHORIZATION, bearer))
+        .andExpect(status().isOk());
+
+    // WHEN
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+        .header(HttpHeaders.AUTHORIZATION, bearer))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // THEN
+    String scrape = result.getResponse().getContentAsString();
+    assertThat(scrape).contains("service_invocations_seconds_bucket{exception=\"none\",method=\"findAll\",service=\"TeacherService\"");
+    assertThat(scrape).contains("auth_password_check_seconds_count");
+    assertThat(scrape).contains("hikaricp_connections_active");
+    assertThat(scrape).contains("hibernate_");
+  }
+
+  @Test
+  public void testPrometheus_NoToken_ReturnsUnauthorized() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void testPrometheus_NotAdmin_ReturnsForbidden() throws Exception {
+    // GIVEN
+    String bearer = "Bearer " + login("toto@todo.com");
+
+    // WHEN / THEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+        .header(HttpHeaders.AUTHORIZATION, bearer))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  public void testHealth_NoToken_ReturnsUp() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void testMetrics_NoToken_ReturnsUnauthorized() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private String login() throws Exception {
+    return login("yoga@studio.com");
+  }
+
+  private String login(String email) throws Exception {
+    ObjectNode requestBody = ObjMapper.createObjectNode();
+    requestBody.put("email", email);
+    requestBody.put("password", "test!1234");
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(ObjMapper.writeValueAsString(requestBody)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MvcResult login = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andReturn();
+    return ObjMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+  }
+}
@@ -0,0 +1,123 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// One pool thread and no queue, so that a single unfinished request saturates the pool
+@SpringBootTest(properties = {
+    "oc.app.executionMode=offload",
+    "oc.app.requestThreads=1",
+    "oc.app.requestQueueCapacity=0"
+})
+@AutoConfigureMockMvc
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:rollback.sql")
+public class OffloadExecutionIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  ObjectMapper ObjMapper = new ObjectMapper();
+
+  @Test
+  public void testFindAllSessions_RunsOnRequestPool() throws Exception {
+    // GIVEN
+    double completed = meterRegistry.get("executor.completed").tag("name", "request").functionCounter().count();
+
+    // WHEN
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MvcResult result = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // THEN
+    JsonNode sessions = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(sessions).hasSize(1);
+    assertThat(meterRegistry.get("executor.completed").tag("name", "request").functionCounter().count())
+        .isGreaterThan(completed);
+  }
+
+  @Test
+  public void testUpdateSession_UnknownTeacher_ReturnsBadRequest() throws Exception {
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.put("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":999}"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testCreateSession_InvalidData_RejectedBeforeOffloading() throws Exception {
+    // Validation runs with the arguments, on the Tomcat thread
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"description\":\"description\"}"))
+        .andExpect(request().asyncNotStarted())
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testImportSessions_NotAdmin_ReturnsForbidden() throws Exception {
+    // The security context follows the handler onto the pool thread
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/session/import")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  public void testPoolSaturated_ReturnsServiceUnavailable() throws Exception {
+    // GIVEN
+    // Not dispatched yet, so the request still holds the only slot
+    MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.get("/api/teacher")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // WHEN / THEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/teacher")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isServiceUnavailable());
+
+    mockMvc.perform(asyncDispatch(pending))
+        .andExpect(status().isOk());
+    MvcResult next = mockMvc.perform(MockMvcRequestBuilders.get("/api/teacher")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(next))
+        .andExpect(status().isOk());
+  }
+}
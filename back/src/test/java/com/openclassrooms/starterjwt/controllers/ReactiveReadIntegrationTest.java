@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// The streamed reads run against an in-memory H2 database standing in for MySQL
+@SpringBootTest(properties = {
+    "oc.app.reactiveReads=true",
+    "oc.app.r2dbcUrl=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1;MODE=MySQL"
+})
+@AutoConfigureMockMvc
+public class ReactiveReadIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private DatabaseClient reactiveDatabaseClient;
+
+  ObjectMapper ObjMapper = new ObjectMapper();
+
+  @BeforeEach
+  public void setUp() {
+    new ResourceDatabasePopulator(new ClassPathResource("reactive-h2.sql")).populate(reactiveDatabaseClient.getConnectionFactory()).block();
+  }
+
+  @Test
+  public void testStreamSessions_OneLinePerSessionWithParticipants() throws Exception {
+    String[] lines = stream("/api/session");
+
+    assertThat(lines).hasSize(3);
+    JsonNode first = ObjMapper.readTree(lines[0]);
+    assertThat(first.get("name").asText()).isEqualTo("Morning flow");
+    assertThat(first.get("teacher_id").asLong()).isEqualTo(1L);
+    assertThat(first.get("users")).extracting(JsonNode::asLong).containsExactly(2L, 3L);
+    assertThat(ObjMapper.readTree(lines[1]).get("users")).isEmpty();
+    assertThat(ObjMapper.readTree(lines[2]).get("users")).extracting(JsonNode::asLong).containsExactly(2L);
+  }
+
+  @Test
+  public void testStreamTeachers() throws Exception {
+    String[] lines = stream("/api/teacher");
+
+    assertThat(lines).hasSize(2);
+    assertThat(ObjMapper.readTree(lines[1]).get("lastName").asText()).isEqualTo("THIERCELIN");
+  }
+
+  @Test
+  public void testFindAllSessions_JsonStillServedByBlockingEndpoint() throws Exception {
+    // The front end's default Accept header must keep getting the JSON array
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .header("Accept", "application/json, text/plain, */*")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertThat(result.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    assertThat(ObjMapper.readTree(result.getResponse().getContentAsString()).isArray()).isTrue();
+  }
+
+  private String[] stream(String url) throws Exception {
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(url)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+    return result.getResponse().getContentAsString().split("\n");
+  }
+}
@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// The streamed reads through r2dbc-mysql, against the database the rest of the suite uses
+@SpringBootTest(properties = "oc.app.reactiveReads=true")
+@AutoConfigureMockMvc
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:rollback.sql")
+public class ReactiveReadMySqlIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  ObjectMapper ObjMapper = new ObjectMapper();
+
+  @Test
+  public void testStreamSessions_ReadsParticipantsWrittenThroughJpa() throws Exception {
+    // GIVEN
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // WHEN
+    String[] lines = stream("/api/session");
+
+    // THEN
+    assertThat(lines).hasSize(1);
+    JsonNode session = ObjMapper.readTree(lines[0]);
+    assertThat(session.get("id").asLong()).isEqualTo(1L);
+    assertThat(session.get("teacher_id").asLong()).isEqualTo(1L);
+    assertThat(session.get("date").isNull()).isFalse();
+    assertThat(session.get("users")).extracting(JsonNode::asLong).containsExactly(2L);
+  }
+
+  @Test
+  public void testStreamTeachers() throws Exception {
+    String[] lines = stream("/api/teacher");
+
+    assertThat(lines).hasSize(2);
+    assertThat(ObjMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(1L);
+    assertThat(ObjMapper.readTree(lines[1]).get("lastName").asText()).isEqualTo("THIERCELIN");
+  }
+
+  private String[] stream(String url) throws Exception {
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(url)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+    return result.getResponse().getContentAsString().split("\n");
+  }
+}
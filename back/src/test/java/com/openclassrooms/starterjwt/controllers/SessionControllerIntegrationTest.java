@@ -1,11 +1,27 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.jdbc.Sql;
@@ -13,8 +29,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openclassrooms.starterjwt.QueryCountExtension;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -24,8 +42,14 @@ public class SessionControllerIntegrationTest {
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
   ObjectMapper ObjMapper = new ObjectMapper();
 
+  @RegisterExtension
+  QueryCountExtension queries = new QueryCountExtension();
+
   @Test
   public void testFindSessionById_SessionExists_ReturnsSessionDto() throws Exception {
     // Perform an HTTP GET request to retrieve session details with a valid ID
@@ -36,6 +60,23 @@ public class SessionControllerIntegrationTest {
     assertThat(result.getResponse().getStatus()).isEqualTo(200);
   }
 
+  @Test
+  public void testFindSessionById_ReturnsParticipantIds() throws Exception {
+    // Register the user as a participant before reading the session
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    JsonNode body = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(body.get("teacher_id").asLong()).isEqualTo(1L);
+    assertThat(body.get("users").get(0).asLong()).isEqualTo(2L);
+  }
+
   @Test
   public void testFindAllSessions() throws Exception {
     // Perform an HTTP GET request to retrieve all sessions
@@ -47,6 +88,74 @@ public class SessionControllerIntegrationTest {
 
   }
 
+  @Test
+  public void testFindSessionPage_ReturnsFirstPage() throws Exception {
+    // Perform an HTTP GET request to retrieve the first page of sessions
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+        .param("size", "10")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    JsonNode body = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(body.get("sessions").size()).isEqualTo(1);
+    assertThat(body.get("nextCursor").isNull()).isTrue();
+  }
+
+  @Test
+  public void testFindSessionPage_FollowsNextCursor() throws Exception {
+    // Create a second session so that a one-session page returns a cursor
+    MvcResult created = mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Later session\",\"description\":\"description\",\"date\":\"2023-12-01\",\"teacher_id\":1}"))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(created.getResponse().getStatus()).isEqualTo(200);
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+        .param("size", "1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode body = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(body.get("sessions").get(0).get("name").asText()).isEqualTo("Initiation yoga");
+
+    MvcResult next = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+        .param("size", "1")
+        .param("cursor", body.get("nextCursor").asText())
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode nextBody = ObjMapper.readTree(next.getResponse().getContentAsString());
+    assertThat(nextBody.get("sessions").get(0).get("name").asText()).isEqualTo("Later session");
+    assertThat(nextBody.get("nextCursor").isNull()).isTrue();
+  }
+
+  @Test
+  public void testFindSessionPage_DateRangeFilter() throws Exception {
+    // Perform an HTTP GET request with a date range that excludes every session
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+        .param("from", "2024-01-01")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    JsonNode body = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(body.get("sessions").size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testFindSessionPage_InvalidCursor_ReturnsBadRequest() throws Exception {
+    // Perform an HTTP GET request with a cursor that was not issued by the API
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+        .param("cursor", "not-a-cursor")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+    assertThat(result.getResponse().getStatus()).isEqualTo(400);
+  }
+
   @Test
   public void testFindSessionById_SessionNotFound_ReturnsNotFound() throws Exception {
     // Perform an HTTP GET request to retrieve a session with an ID that does not
@@ -96,6 +205,98 @@ public class SessionControllerIntegrationTest {
     assertThat(result.getResponse().getStatus()).isEqualTo(400);
   }
 
+  @Test
+  public void testCreateSession_WithUsers_ResolvesEachUserOnce() throws Exception {
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":2,\"users\":[2,1,2]}"))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    JsonNode body = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(body.get("teacher_id").asLong()).isEqualTo(2L);
+    assertThat(body.get("users")).hasSize(2);
+    assertThat(body.get("users").get(0).asLong()).isEqualTo(2L);
+    assertThat(body.get("users").get(1).asLong()).isEqualTo(1L);
+  }
+
+  @Test
+  public void testCreateSession_UnknownUser_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":1,\"users\":[1,999]}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testCreateSession_UnknownTeacher_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":999}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testCreateSession_UsersOverCapacity_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Small class\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":1,\"capacity\":1,\"users\":[1,2]}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testUpdateSession_UsersOverCapacity_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.put("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Small class\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":1,\"capacity\":1,\"users\":[1,2]}"))
+        .andExpect(status().isBadRequest());
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(ObjMapper.readTree(result.getResponse().getContentAsString()).get("users")).isEmpty();
+  }
+
+  @Test
+  public void testUpdateSession_UnknownTeacher_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.put("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":999}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testUpdateSession_DescriptionTooLongForColumn_ReturnsBadRequest() throws Exception {
+    // Within the 2500 characters the DTO allows, but over the 2000 of the column
+    ObjectNode requestBody = ObjMapper.createObjectNode();
+    requestBody.put("name", "Session Name");
+    requestBody.put("description", "d".repeat(2100));
+    requestBody.put("date", "2023-10-15");
+    requestBody.put("teacher_id", 1);
+
+    mockMvc.perform(MockMvcRequestBuilders.put("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(ObjMapper.writeValueAsString(requestBody)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testUpdateSession_UnknownSession_ReturnsNotFound() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.put("/api/session/999")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":1}"))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   public void testUpdateSession_ValidInput() throws Exception {
     // Create a JSON request body with valid session data for updating
@@ -163,6 +364,227 @@ public class SessionControllerIntegrationTest {
     assertThat(result.getResponse().getStatus()).isEqualTo(200);
   }
 
+  @Test
+  public void testFindSessionById_CachedUntilParticipationChanges() throws Exception {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    // GIVEN the session is read twice, the second time from the query cache
+    assertThat(getSession(1).get("users")).isEmpty();
+    long hits = statistics.getQueryCacheHitCount();
+    assertThat(getSession(1).get("users")).isEmpty();
+    assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hits);
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // THEN the cached participants are not served any more
+    JsonNode users = getSession(1).get("users");
+    assertThat(users).hasSize(1);
+    assertThat(users.get(0).asLong()).isEqualTo(2L);
+  }
+
+  @Test
+  public void testFindSessionById_ConditionalGet() throws Exception {
+    // GIVEN
+    String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(eTag).isNotNull();
+
+    // WHEN / THEN the unchanged session is not sent again
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+
+    // WHEN / THEN a new participant is a new version
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+    String newETag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(newETag).isNotEqualTo(eTag);
+  }
+
+  @Test
+  public void testFindAllSessions_ConditionalGet() throws Exception {
+    // GIVEN
+    String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // THEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void testFindAllSessions_OlderSessionDeleted_ReturnsOk() throws Exception {
+    // GIVEN a newer session, so that deleting session 1 keeps the latest updated_at
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Later session\",\"description\":\"description\",\"date\":\"2023-12-01\",\"teacher_id\":1}"))
+        .andExpect(status().isOk());
+    MvcResult cached = mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(cached.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+    String eTag = cached.getResponse().getHeader(HttpHeaders.ETAG);
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // THEN neither validator lets the client keep the deleted session
+    HttpHeaders ifModifiedSince = new HttpHeaders();
+    ifModifiedSince.setIfModifiedSince(System.currentTimeMillis());
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk());
+    MvcResult revalidated = mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .headers(ifModifiedSince))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(ObjMapper.readTree(revalidated.getResponse().getContentAsString())).hasSize(1);
+  }
+
+  private JsonNode getSession(long id) throws Exception {
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/" + id)
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    return ObjMapper.readTree(result.getResponse().getContentAsString());
+  }
+
+  @Test
+  public void testParticipateInSession_AlreadyParticipating_ReturnsBadRequest() throws Exception {
+    // Participate once, then try to participate a second time
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+    assertThat(result.getResponse().getStatus()).isEqualTo(400);
+  }
+
+  @Test
+  public void testParticipateInSession_ConcurrentBookingsRespectCapacity() throws Exception {
+    // Create a session with a single seat
+    MvcResult created = mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Small class\",\"description\":\"description\",\"date\":\"2023-11-01\",\"teacher_id\":1,\"capacity\":1}"))
+        .andExpect(status().isOk())
+        .andReturn();
+    long sessionId = ObjMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+    // Two users try to book the last seat at the same time
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> statuses = new ArrayList<>();
+    for (long userId = 1; userId <= 2; userId++) {
+      String url = "/api/session/" + sessionId + "/participate/" + userId;
+      statuses.add(executor.submit(() -> {
+        start.await();
+        return mockMvc.perform(MockMvcRequestBuilders.post(url)
+            .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+            .andReturn().getResponse().getStatus();
+      }));
+    }
+    start.countDown();
+
+    List<Integer> results = new ArrayList<>();
+    for (Future<Integer> status : statuses) {
+      results.add(status.get());
+    }
+    executor.shutdown();
+    assertThat(results).containsExactlyInAnyOrder(200, 409);
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/" + sessionId)
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode body = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(body.get("capacity").asInt()).isEqualTo(1);
+    assertThat(body.get("users").size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testNoLongerParticipate_PromotesWaitlistedUser() throws Exception {
+    // Create a full session with a single seat taken by user 2
+    MvcResult created = mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Small class\",\"description\":\"description\",\"date\":\"2023-11-01\",\"teacher_id\":1,\"capacity\":1}"))
+        .andExpect(status().isOk())
+        .andReturn();
+    long sessionId = ObjMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+    String sessionUrl = "/api/session/" + sessionId;
+
+    mockMvc.perform(MockMvcRequestBuilders.post(sessionUrl + "/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+    mockMvc.perform(MockMvcRequestBuilders.post(sessionUrl + "/participate/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isConflict());
+
+    // User 1 waits for a seat, then user 2 cancels
+    mockMvc.perform(MockMvcRequestBuilders.post(sessionUrl + "/waitlist/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+    MvcResult waitlist = mockMvc.perform(MockMvcRequestBuilders.get(sessionUrl + "/waitlist")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(ObjMapper.readTree(waitlist.getResponse().getContentAsString()).get(0).asLong()).isEqualTo(1L);
+
+    mockMvc.perform(MockMvcRequestBuilders.delete(sessionUrl + "/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // User 1 has been promoted and the waitlist is empty
+    MvcResult session = mockMvc.perform(MockMvcRequestBuilders.get(sessionUrl)
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode users = ObjMapper.readTree(session.getResponse().getContentAsString()).get("users");
+    assertThat(users.size()).isEqualTo(1);
+    assertThat(users.get(0).asLong()).isEqualTo(1L);
+
+    waitlist = mockMvc.perform(MockMvcRequestBuilders.get(sessionUrl + "/waitlist")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(ObjMapper.readTree(waitlist.getResponse().getContentAsString()).size()).isEqualTo(0);
+  }
+
   @Test
   public void testParticipateInSession_InvalidInput_ReturnsBadRequest() throws Exception {
     // Perform an HTTP POST request to participate in a session with invalid input
@@ -200,4 +622,228 @@ public class SessionControllerIntegrationTest {
         .andReturn();
     assertThat(result.getResponse().getStatus()).isEqualTo(400);
   }
+
+  @Test
+  public void testStream_ReceivesCommittedParticipation() throws Exception {
+    // Open the event stream, then book a seat from another request
+    MvcResult stream = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/stream")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // Events are sent from the stream's own threads
+    long deadline = System.currentTimeMillis() + 5000;
+    String content = stream.getResponse().getContentAsString();
+    while (!content.contains("\"userId\":2") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      content = stream.getResponse().getContentAsString();
+    }
+    assertThat(content).contains("event:participant_joined");
+    assertThat(content).contains("\"sessionId\":1,\"userId\":2");
+  }
+
+  @Test
+  public void testExport_Admin_StreamsOneLinePerSession() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    String[] lines = export("ndjson").split("\n");
+
+    JsonNode first = ObjMapper.readTree(lines[0]);
+    assertThat(first.get("id").asLong()).isEqualTo(1L);
+    assertThat(first.get("users")).extracting(JsonNode::asLong).containsExactly(1L);
+  }
+
+  @Test
+  public void testExport_Csv_OneLinePerParticipation() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    String[] lines = export("csv").split("\n");
+
+    assertThat(lines[0]).isEqualTo("session_id,name,date,teacher_id,description,capacity,user_id");
+    assertThat(lines[1]).startsWith("1,").endsWith(",1");
+  }
+
+  @Test
+  public void testExport_NotAdmin_ReturnsForbidden() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  public void testExport_UnknownFormat_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export?format=xml")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com").roles("ADMIN")))
+        .andExpect(status().isBadRequest());
+  }
+
+  private String export(String format) throws Exception {
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export?format=" + format)
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com").roles("ADMIN")))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+    return result.getResponse().getContentAsString();
+  }
+
+  @Test
+  public void testImportSessions_ReportsEachRejectedRow() throws Exception {
+    // Warm the cached session list, the import must invalidate it
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    String body = "["
+        + "{\"name\":\"Imported\",\"description\":\"d\",\"date\":\"2024-01-15\",\"teacher_id\":1,\"users\":[1,1]},"
+        + "{\"name\":\"\",\"description\":\"d\",\"date\":\"2024-01-16\",\"teacher_id\":1},"
+        + "{\"name\":\"Unknown teacher\",\"description\":\"d\",\"date\":\"2024-01-17\",\"teacher_id\":999}"
+        + "]";
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/session/import")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com").roles("ADMIN"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    JsonNode report = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(report.get("imported").asInt()).isEqualTo(1);
+    assertThat(report.get("ids").get(1).isNull()).isTrue();
+    assertThat(report.get("errors")).extracting(error -> error.get("index").asInt()).containsExactly(1, 2);
+    assertThat(report.get("errors").get(1).get("messages").get(0).asText()).contains("teacher_id 999");
+
+    long id = report.get("ids").get(0).asLong();
+    MvcResult all = mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode imported = null;
+    for (JsonNode session : ObjMapper.readTree(all.getResponse().getContentAsString())) {
+      if (session.get("id").asLong() == id) {
+        imported = session;
+      }
+    }
+    assertThat(imported).isNotNull();
+    assertThat(imported.get("users")).extracting(JsonNode::asLong).containsExactly(1L);
+  }
+
+  @Test
+  public void testImportSessions_UsersOverCapacity_RejectsRow() throws Exception {
+    String body = "[{\"name\":\"Small class\",\"description\":\"d\",\"date\":\"2024-01-15\",\"teacher_id\":1,"
+        + "\"capacity\":1,\"users\":[1,2]}]";
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/session/import")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com").roles("ADMIN"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    JsonNode report = ObjMapper.readTree(result.getResponse().getContentAsString());
+    assertThat(report.get("imported").asInt()).isEqualTo(0);
+    assertThat(report.get("errors").get(0).get("messages").get(0).asText()).contains("capacity 1");
+  }
+
+  @Test
+  public void testImportSessions_NotAdmin_ReturnsForbidden() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/import")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]"))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  public void testParticipateAll_ThenNoLongerParticipateAll() throws Exception {
+    String body = "{\"sessionIds\":[1],\"userIds\":[1,999]}";
+
+    MvcResult joined = mockMvc.perform(MockMvcRequestBuilders.post("/api/session/participate")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode joinResults = ObjMapper.readTree(joined.getResponse().getContentAsString());
+    assertThat(joinResults).extracting(result -> result.get("status").asText())
+        .containsExactly("JOINED", "USER_NOT_FOUND");
+
+    MvcResult left = mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/participate")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode leaveResults = ObjMapper.readTree(left.getResponse().getContentAsString());
+    assertThat(leaveResults).extracting(result -> result.get("status").asText())
+        .containsExactly("LEFT", "NOT_PARTICIPATING");
+  }
+
+  @Test
+  public void testParticipateAll_EmptyUsers_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/participate")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"sessionIds\":[1],\"userIds\":[]}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testFindAllSessions_QueryCountDoesNotGrowWithSessions() throws Exception {
+    // GIVEN
+    long oneSession = countFindAllQueries();
+    for (int i = 0; i < 4; i++) {
+      mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+          .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"name\":\"Session " + i + "\",\"description\":\"description\",\"date\":\"2023-12-01\",\"teacher_id\":2}"))
+          .andExpect(status().isOk());
+    }
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/participate")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"sessionIds\":[1,2,3,4,5],\"userIds\":[1,2]}"))
+        .andExpect(status().isOk());
+
+    // WHEN
+    long fiveSessions = countFindAllQueries();
+
+    // THEN
+    assertThat(fiveSessions).isEqualTo(oneSession);
+    assertThat(oneSession).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  public void testFindSessionById_QueryCount() throws Exception {
+    // GIVEN
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+    entityManagerFactory.getCache().evictAll();
+    queries.reset();
+
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // THEN
+    queries.assertAtMost(3);
+  }
+
+  private long countFindAllQueries() throws Exception {
+    entityManagerFactory.getCache().evictAll();
+    queries.reset();
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+    return queries.count();
+  }
 }
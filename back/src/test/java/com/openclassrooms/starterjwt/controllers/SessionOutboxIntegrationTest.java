@@ -0,0 +1,59 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+
+// The relay only runs at startup, so that the recorded events stay in the table
+@SpringBootTest(properties = "oc.app.outboxRelayMs=3600000")
+@AutoConfigureMockMvc
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:rollback.sql")
+public class SessionOutboxIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private OutboxEventRepository outboxEventRepository;
+
+  @Test
+  public void testParticipate_RecordsOutboxEvent() throws Exception {
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.post("/api/session/1/participate/2")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk());
+
+    // THEN
+    List<OutboxEvent> events = outboxEventRepository.findAll();
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getType()).isEqualTo(SessionEventDto.Type.PARTICIPANT_JOINED);
+    assertThat(events.get(0).getSessionId()).isEqualTo(1L);
+    assertThat(events.get(0).getUserId()).isEqualTo(2L);
+  }
+
+  @Test
+  public void testUpdateSession_UnknownTeacher_RecordsNoOutboxEvent() throws Exception {
+    // WHEN
+    mockMvc.perform(MockMvcRequestBuilders.put("/api/session/1")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"Session Name\",\"description\":\"description\",\"date\":\"2023-10-15\",\"teacher_id\":999}"))
+        .andExpect(status().isBadRequest());
+
+    // THEN the failed update left no event behind
+    assertThat(outboxEventRepository.findAll()).isEmpty();
+  }
+}
@@ -1,11 +1,13 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
@@ -50,4 +52,24 @@ public class TeacherControllerIntegrationTest {
         .andReturn();
     assertThat(result.getResponse().getStatus()).isEqualTo(404);
   }
+
+  @Test
+  public void testFindAllTeachers_Unchanged_ReturnsNotModified() throws Exception {
+    // GIVEN
+    MvcResult first = mockMvc.perform(MockMvcRequestBuilders.get("/api/teacher")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com")))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+        .andReturn();
+    String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+    // WHEN / THEN
+    MvcResult second = mockMvc.perform(MockMvcRequestBuilders.get("/api/teacher")
+        .with(SecurityMockMvcRequestPostProcessors.user("yoga@studio.com"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andReturn();
+    assertThat(second.getResponse().getContentAsString()).isEmpty();
+  }
 }
@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AuthTokenFilterTest {
+  @Mock
+  private JwtUtils jwtUtils;
+
+  @Mock
+  private UserDetailsServiceImpl userDetailsService;
+
+  @Mock
+  private JwtTokenCache jwtTokenCache;
+
+  @Mock
+  private Logger logger;
+
+  private AuthTokenFilter authTokenFilter;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(logger.isWarnEnabled()).thenReturn(true);
+
+    authTokenFilter = new AuthTokenFilter();
+    ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+    ReflectionTestUtils.setField(authTokenFilter, "userDetailsService", userDetailsService);
+    ReflectionTestUtils.setField(authTokenFilter, "jwtTokenCache", jwtTokenCache);
+    ReflectionTestUtils.setField(authTokenFilter, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(authTokenFilter, "authFailures", new RateLimitedLog(logger, 10));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void testDoFilter_UserNoLongerExists_WarnsWithoutStackTrace() throws Exception {
+    // GIVEN
+    Claims claims = mock(Claims.class);
+    when(claims.getSubject()).thenReturn("gone@studio.com");
+    when(jwtUtils.parseClaims("token")).thenReturn(claims);
+    when(userDetailsService.loadUserByUsername("gone@studio.com"))
+        .thenThrow(new UsernameNotFoundException("User Not Found with email: gone@studio.com"));
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Authorization", "Bearer token");
+    MockFilterChain chain = new MockFilterChain();
+
+    // WHEN
+    authTokenFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    // THEN
+    // The request goes on, unauthenticated, and the failure is one WARN line
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    verify(logger).warn(eq("{}: {}"), eq("Cannot set user authentication"), contains("User Not Found"));
+    verify(logger, never()).error(anyString(), any(Throwable.class));
+  }
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+public class JwtKeysTest {
+
+  @Test
+  public void testHmacKey_ShortSecret_Rejected() {
+    assertThatThrownBy(() -> JwtKeys.hmacKey("openclassrooms", SignatureAlgorithm.HS512))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("oc.app.jwtSecret must be at least 64 bytes");
+  }
+
+  @Test
+  public void testHmacKey_LongSecret_UsedAsIs() {
+    // GIVEN
+    String secret = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    // WHEN
+    SecretKey key = JwtKeys.hmacKey(secret, SignatureAlgorithm.HS512);
+
+    // THEN
+    assertThat(key.getEncoded()).isEqualTo(secret.getBytes());
+  }
+}
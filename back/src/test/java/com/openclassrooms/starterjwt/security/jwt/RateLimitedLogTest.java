@@ -0,0 +1,82 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+
+public class RateLimitedLogTest {
+  @Mock
+  private Logger logger;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(logger.isWarnEnabled()).thenReturn(true);
+  }
+
+  @Test
+  public void testWarn_OverLimit_DropsLines() {
+    // GIVEN
+    RateLimitedLog log = new RateLimitedLog(logger, 2);
+
+    // WHEN
+    for (int i = 0; i < 5; i++) {
+      log.warn("Invalid JWT token", "malformed " + i);
+    }
+
+    // THEN
+    verify(logger).warn("{}: {}", "Invalid JWT token", "malformed 0");
+    verify(logger).warn("{}: {}", "Invalid JWT token", "malformed 1");
+    verify(logger, times(2)).warn(anyString(), any(Object.class), any(Object.class));
+  }
+
+  @Test
+  public void testWarn_LimitsEachReasonSeparately() {
+    // GIVEN
+    RateLimitedLog log = new RateLimitedLog(logger, 1);
+
+    // WHEN
+    log.warn("Invalid JWT token", "first");
+    log.warn("Invalid JWT token", "second");
+    log.warn("JWT token is expired", "first");
+
+    // THEN
+    verify(logger).warn("{}: {}", "Invalid JWT token", "first");
+    verify(logger).warn("{}: {}", "JWT token is expired", "first");
+    verify(logger, never()).warn("{}: {}", "Invalid JWT token", "second");
+  }
+
+  @Test
+  public void testWarn_DetailWithLineBreaks_WritesOneLine() {
+    // GIVEN
+    RateLimitedLog log = new RateLimitedLog(logger, 10);
+
+    // WHEN
+    log.warn("Invalid JWT token", "malformed\r\n2023-10-15 WARN forged line");
+
+    // THEN
+    verify(logger).warn("{}: {}", "Invalid JWT token", "malformed__2023-10-15 WARN forged line");
+  }
+
+  @Test
+  public void testWarn_WarnDisabled_WritesNothing() {
+    // GIVEN
+    when(logger.isWarnEnabled()).thenReturn(false);
+    RateLimitedLog log = new RateLimitedLog(logger, 10);
+
+    // WHEN
+    log.warn("Invalid JWT token", "malformed");
+
+    // THEN
+    verify(logger, never()).warn(anyString(), any(Object.class), any(Object.class));
+  }
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+public class TokenDenylistTest {
+  @Mock
+  private RevokedTokenRepository revokedTokenRepository;
+
+  private TokenDenylist tokenDenylist;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    tokenDenylist = new TokenDenylist(revokedTokenRepository, 86400000);
+  }
+
+  @Test
+  public void testRefresh_LoadsOnlyNewRows() {
+    // GIVEN
+    RevokedToken revoked = new RevokedToken()
+        .setId(7L)
+        .setTokenId("token-7")
+        .setRevokedAt(LocalDateTime.now())
+        .setExpiresAt(LocalDateTime.now().plusHours(1));
+    when(revokedTokenRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(0L), any(LocalDateTime.class)))
+        .thenReturn(Collections.singletonList(revoked));
+    when(revokedTokenRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(7L), any(LocalDateTime.class)))
+        .thenReturn(Collections.emptyList());
+
+    // WHEN
+    tokenDenylist.refresh();
+    tokenDenylist.refresh();
+
+    // THEN
+    assertThat(tokenDenylist.isTokenRevoked("token-7")).isTrue();
+    verify(revokedTokenRepository).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(0L), any(LocalDateTime.class));
+    verify(revokedTokenRepository).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(7L), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void testRefresh_ExpiredRevocation_DroppedFromMemory() {
+    // GIVEN
+    when(revokedTokenRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(any(), any()))
+        .thenReturn(Collections.emptyList());
+    tokenDenylist.revokeToken("expired", 1L, new Date(System.currentTimeMillis() - 1000));
+    tokenDenylist.revokeToken("valid", 1L, new Date(System.currentTimeMillis() + 60000));
+
+    // WHEN
+    tokenDenylist.refresh();
+
+    // THEN
+    assertThat(tokenDenylist.isTokenRevoked("expired")).isFalse();
+    assertThat(tokenDenylist.isTokenRevoked("valid")).isTrue();
+  }
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoginExecutorTest {
+
+  private MeterRegistry meterRegistry;
+
+  private LoginExecutor loginExecutor;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    loginExecutor = new LoginExecutor(1, 1, meterRegistry);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    loginExecutor.destroy();
+  }
+
+  @Test
+  public void testSubmit_runsTask() throws Exception {
+    // WHEN
+    CompletableFuture<String> result = loginExecutor.submit(() -> "token");
+
+    // THEN
+    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("token");
+  }
+
+  @Test
+  public void testSubmit_saturated_throwsTooManyRequests() throws Exception {
+    // GIVEN the only thread is busy and the queue holds one task
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch running = new CountDownLatch(1);
+    CompletableFuture<Boolean> busy = loginExecutor.submit(() -> {
+      running.countDown();
+      try {
+        return release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    });
+    running.await(5, TimeUnit.SECONDS);
+    CompletableFuture<String> queued = loginExecutor.submit(() -> "queued");
+
+    // WHEN / THEN
+    assertThatThrownBy(() -> loginExecutor.submit(() -> "rejected"))
+        .isInstanceOf(TooManyRequestsException.class);
+    assertThat(meterRegistry.get("auth.login.rejected").counter().count()).isEqualTo(1);
+
+    release.countDown();
+    assertThat(busy.get(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+  }
+}
@@ -0,0 +1,103 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+
+public class OutboxRelayTest {
+  @Mock
+  private OutboxEventRepository outboxEventRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private OutboxSink firstSink;
+
+  private OutboxSink secondSink;
+
+  private OutboxRelay outboxRelay;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    firstSink = mock(OutboxSink.class);
+    secondSink = mock(OutboxSink.class);
+    outboxRelay = new OutboxRelay(outboxEventRepository, Arrays.asList(firstSink, secondSink),
+        transactionManager, 2);
+  }
+
+  @Test
+  public void testRelay_DeliversToEverySinkThenDeletes() throws Exception {
+    // GIVEN
+    List<OutboxEvent> batch = Collections.singletonList(event(1L));
+    when(outboxEventRepository.findHeadForUpdate(PageRequest.of(0, 2))).thenReturn(batch);
+
+    // WHEN
+    outboxRelay.relay();
+
+    // THEN
+    InOrder order = inOrder(firstSink, secondSink, outboxEventRepository);
+    order.verify(firstSink).deliver(batch);
+    order.verify(secondSink).deliver(batch);
+    order.verify(outboxEventRepository).deleteAllInBatch(batch);
+  }
+
+  @Test
+  public void testRelay_FullBatch_DrainsUntilEmpty() throws Exception {
+    // GIVEN
+    List<OutboxEvent> first = Arrays.asList(event(1L), event(2L));
+    List<OutboxEvent> second = Collections.singletonList(event(3L));
+    when(outboxEventRepository.findHeadForUpdate(any(Pageable.class))).thenReturn(first).thenReturn(second);
+
+    // WHEN
+    outboxRelay.relay();
+
+    // THEN
+    verify(outboxEventRepository, times(2)).findHeadForUpdate(any(Pageable.class));
+    verify(outboxEventRepository).deleteAllInBatch(first);
+    verify(outboxEventRepository).deleteAllInBatch(second);
+  }
+
+  @Test
+  public void testRelay_SinkFails_KeepsBatch() throws Exception {
+    // GIVEN
+    List<OutboxEvent> batch = Collections.singletonList(event(1L));
+    when(outboxEventRepository.findHeadForUpdate(any(Pageable.class))).thenReturn(batch);
+    doThrow(new IOException("Disk full")).when(secondSink).deliver(batch);
+
+    // WHEN
+    outboxRelay.relay();
+
+    // THEN
+    // The batch is left in the outbox and the transaction rolled back
+    verify(outboxEventRepository, never()).deleteAllInBatch(any());
+    verify(transactionManager).rollback(any());
+  }
+
+  private static OutboxEvent event(Long id) {
+    return new OutboxEvent().setId(id).setType(SessionEventDto.Type.UPDATED).setSessionId(1L);
+  }
+}
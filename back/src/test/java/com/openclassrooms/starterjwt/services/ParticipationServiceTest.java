@@ -0,0 +1,288 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.openclassrooms.starterjwt.dto.ParticipationResultDto;
+import com.openclassrooms.starterjwt.dto.ParticipationResultDto.Status;
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+public class ParticipationServiceTest {
+  @Mock
+  private ParticipationRepository participationRepository;
+
+  @Mock
+  private SessionRepository sessionRepository;
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private WaitlistService waitlistService;
+
+  @Mock
+  private SessionUsersCache sessionUsersCache;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @InjectMocks
+  private ParticipationService participationService;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void testParticipate_Success() {
+    // GIVEN
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(new Session()));
+    when(userRepository.existsById(userId)).thenReturn(true);
+    when(participationRepository.existsBySessionIdAndUserId(sessionId, userId)).thenReturn(false);
+
+    // WHEN
+    participationService.participate(sessionId, userId);
+
+    // THEN
+    // Verify that a single participation row is inserted
+    verify(participationRepository).saveAndFlush(new Participation(sessionId, userId));
+    verify(sessionUsersCache).evictAfterCommit(sessionId);
+    verify(waitlistService).remove(sessionId, userId);
+    verify(eventPublisher).publishEvent(
+        new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, sessionId, userId));
+  }
+
+  @Test
+  public void testParticipate_SessionNotFound() {
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    // Configure the mock to simulate that the session is not found
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.empty());
+
+    // Call the participate method with session and user IDs and expect
+    // NotFoundException
+    assertThrows(NotFoundException.class, () -> participationService.participate(sessionId, userId));
+  }
+
+  @Test
+  public void testParticipate_UserNotFound() {
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    // Configure the mock to simulate that the user is not found
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(new Session()));
+    when(userRepository.existsById(userId)).thenReturn(false);
+
+    // Call the participate method with session and user IDs and expect
+    // NotFoundException
+    assertThrows(NotFoundException.class, () -> participationService.participate(sessionId, userId));
+  }
+
+  @Test
+  public void testParticipate_UserAlreadyParticipating() {
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    // Configure the mock to simulate that the user is already participating in the
+    // session
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(new Session()));
+    when(userRepository.existsById(userId)).thenReturn(true);
+    when(participationRepository.existsBySessionIdAndUserId(sessionId, userId)).thenReturn(true);
+
+    // Call the participate method with session and user IDs and expect
+    // BadRequestException
+    assertThrows(BadRequestException.class, () -> participationService.participate(sessionId, userId));
+    verify(participationRepository, never()).saveAndFlush(any(Participation.class));
+  }
+
+  @Test
+  public void testParticipate_ConcurrentDuplicate() {
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    // Configure the mock to simulate the unique constraint rejecting a concurrent
+    // insert
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(new Session()));
+    when(userRepository.existsById(userId)).thenReturn(true);
+    when(participationRepository.saveAndFlush(any(Participation.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+    assertThrows(BadRequestException.class, () -> participationService.participate(sessionId, userId));
+  }
+
+  @Test
+  public void testParticipate_SessionFull() {
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    Session session = new Session();
+    session.setId(sessionId);
+    session.setCapacity(2);
+
+    // Configure the mock to simulate a session whose seats are all taken
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(session));
+    when(userRepository.existsById(userId)).thenReturn(true);
+    when(participationRepository.countBySessionId(sessionId)).thenReturn(2L);
+
+    assertThrows(SessionFullException.class, () -> participationService.participate(sessionId, userId));
+    verify(participationRepository, never()).saveAndFlush(any(Participation.class));
+  }
+
+  @Test
+  public void testParticipate_SessionWithFreeSeat() {
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    Session session = new Session();
+    session.setId(sessionId);
+    session.setCapacity(2);
+
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(session));
+    when(userRepository.existsById(userId)).thenReturn(true);
+    when(participationRepository.countBySessionId(sessionId)).thenReturn(1L);
+
+    participationService.participate(sessionId, userId);
+
+    verify(participationRepository).saveAndFlush(new Participation(sessionId, userId));
+  }
+
+  @Test
+  public void testNoLongerParticipate_Success() {
+    // GIVEN
+    Long sessionId = 1L;
+    Long userId = 2L;
+    Session session = new Session();
+    session.setId(sessionId);
+
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(session));
+    when(participationRepository.deleteBySessionIdAndUserId(sessionId, userId)).thenReturn(1);
+    when(waitlistService.promote(session)).thenReturn(Collections.singletonList(3L));
+
+    // WHEN
+    participationService.noLongerParticipate(sessionId, userId);
+
+    // THEN
+    // Verify that only the matching participation row is deleted and that the
+    // freed seat is offered to the waitlist
+    verify(participationRepository).deleteBySessionIdAndUserId(sessionId, userId);
+    verify(waitlistService).promote(session);
+    verify(eventPublisher).publishEvent(
+        new SessionEventDto(SessionEventDto.Type.PARTICIPANT_LEFT, sessionId, userId));
+    verify(eventPublisher).publishEvent(
+        new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, sessionId, 3L));
+  }
+
+  @Test
+  public void testNoLongerParticipate_SessionNotFound() {
+    // GIVEN
+    Long sessionId = 1L;
+    Long userId = 2L;
+
+    // Configure the mock to simulate that the session is not found
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.empty());
+
+    // WHEN and THEN
+    // Call the noLongerParticipate method and expect a NotFoundException
+    assertThatThrownBy(() -> participationService.noLongerParticipate(sessionId, userId))
+        .isInstanceOf(NotFoundException.class);
+  }
+
+  @Test
+  public void testNoLongerParticipate_UserNotParticipating() {
+    // GIVEN
+    Long sessionId = 1L;
+    Long userId = 2L;
+    Session session = new Session();
+    session.setId(sessionId);
+
+    // Configure the mock to simulate that no participation row matches
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(session));
+    when(participationRepository.deleteBySessionIdAndUserId(sessionId, userId)).thenReturn(0);
+
+    // WHEN and THEN
+    // Call the noLongerParticipate method and expect a BadRequestException
+    assertThatThrownBy(() -> participationService.noLongerParticipate(sessionId, userId))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  public void testParticipateAll_ReportsEachPair() {
+    // GIVEN
+    // Session 1 has one seat left and user 2 already participates, session 9 does not exist
+    Session session = new Session();
+    session.setId(1L);
+    session.setCapacity(2);
+    List<Long> userIds = Arrays.asList(2L, 3L, 4L, 5L);
+
+    when(userRepository.findExistingIds(new LinkedHashSet<>(userIds))).thenReturn(Arrays.asList(2L, 3L, 4L));
+    when(sessionRepository.findAllByIdForUpdate(new TreeSet<>(Arrays.asList(1L, 9L))))
+        .thenReturn(Collections.singletonList(session));
+    when(participationRepository.findUserIds(1L, new LinkedHashSet<>(userIds))).thenReturn(Collections.singletonList(2L));
+    when(participationRepository.countBySessionId(1L)).thenReturn(1L);
+
+    // WHEN
+    List<ParticipationResultDto> results = participationService.participateAll(Arrays.asList(9L, 1L), userIds);
+
+    // THEN
+    assertThat(results).extracting(ParticipationResultDto::getStatus).containsExactly(
+        Status.ALREADY_PARTICIPATING, Status.JOINED, Status.SESSION_FULL, Status.USER_NOT_FOUND,
+        Status.SESSION_NOT_FOUND, Status.SESSION_NOT_FOUND, Status.SESSION_NOT_FOUND, Status.SESSION_NOT_FOUND);
+    verify(participationRepository).saveAll(Collections.singletonList(new Participation(1L, 3L)));
+    verify(waitlistService).removeAll(1L, Collections.singletonList(3L));
+    verify(eventPublisher).publishEvent(new SessionEventDto(SessionEventDto.Type.PARTICIPANT_JOINED, 1L, 3L));
+  }
+
+  @Test
+  public void testNoLongerParticipateAll_DeletesParticipantsInOneStatement() {
+    // GIVEN
+    Session session = new Session();
+    session.setId(1L);
+    List<Long> userIds = Arrays.asList(2L, 3L);
+
+    when(sessionRepository.findAllByIdForUpdate(new TreeSet<>(Collections.singletonList(1L))))
+        .thenReturn(Collections.singletonList(session));
+    when(participationRepository.findUserIds(1L, new LinkedHashSet<>(userIds))).thenReturn(Collections.singletonList(3L));
+
+    // WHEN
+    List<ParticipationResultDto> results = participationService.noLongerParticipateAll(Collections.singletonList(1L), userIds);
+
+    // THEN
+    assertThat(results).extracting(ParticipationResultDto::getStatus)
+        .containsExactly(Status.NOT_PARTICIPATING, Status.LEFT);
+    verify(participationRepository).deleteBySessionIdAndUserIdIn(1L, Collections.singleton(3L));
+    verify(waitlistService).promote(session);
+  }
+}
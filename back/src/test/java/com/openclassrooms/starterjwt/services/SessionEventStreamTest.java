@@ -0,0 +1,121 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
+
+public class SessionEventStreamTest {
+  private final SessionEventStream sessionEventStream = new SessionEventStream(60000, 2, 1);
+
+  @AfterEach
+  public void tearDown() {
+    sessionEventStream.destroy();
+  }
+
+  @Test
+  public void testOnSessionEvent_SentToSubscriber() throws Exception {
+    // GIVEN
+    CapturingEmitter emitter = new CapturingEmitter(new CountDownLatch(0));
+    sessionEventStream.subscribe(emitter);
+
+    // WHEN
+    sessionEventStream.onSessionEvent(SessionEventDto.of(SessionEventDto.Type.CREATED, 1L));
+
+    // THEN
+    assertThat(emitter.awaitEvents(1)).containsExactly("event:created");
+  }
+
+  @Test
+  public void testOnSessionEvent_SlowSubscriberOverflows_ReceivesResync() throws Exception {
+    // GIVEN
+    // The first send blocks, so the following events pile up in the 2-slot buffer
+    CountDownLatch release = new CountDownLatch(1);
+    CapturingEmitter emitter = new CapturingEmitter(release);
+    sessionEventStream.subscribe(emitter);
+
+    // WHEN
+    sessionEventStream.onSessionEvent(SessionEventDto.of(SessionEventDto.Type.CREATED, 1L));
+    emitter.awaitFirstSend();
+    for (long id = 2; id <= 5; id++) {
+      sessionEventStream.onSessionEvent(SessionEventDto.of(SessionEventDto.Type.UPDATED, id));
+    }
+    release.countDown();
+
+    // THEN
+    // The dropped updates are replaced by a single resync, later events still arrive
+    List<String> events = emitter.awaitEvents(3);
+    assertThat(events).containsExactly("event:created", "event:resync", "event:updated");
+  }
+
+  @Test
+  public void testSend_ClientGone_Unsubscribes() throws Exception {
+    // GIVEN
+    SseEmitter emitter = new SseEmitter() {
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+    };
+    sessionEventStream.subscribe(emitter);
+
+    // WHEN
+    sessionEventStream.heartbeat();
+
+    // THEN
+    long deadline = System.currentTimeMillis() + 5000;
+    while (sessionEventStream.subscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(sessionEventStream.subscriberCount()).isZero();
+  }
+
+  private static class CapturingEmitter extends SseEmitter {
+    private final List<String> names = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch release;
+
+    private final CountDownLatch firstSend = new CountDownLatch(1);
+
+    CapturingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      firstSend.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      names.add(builder.build().stream()
+          .map(part -> part.getData().toString())
+          .filter(data -> data.startsWith("event:"))
+          .map(data -> data.substring(0, data.indexOf('\n')))
+          .collect(Collectors.joining()));
+    }
+
+    void awaitFirstSend() throws InterruptedException {
+      firstSend.await(5, TimeUnit.SECONDS);
+    }
+
+    List<String> awaitEvents(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (names.size() < count && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      return names;
+    }
+  }
+}
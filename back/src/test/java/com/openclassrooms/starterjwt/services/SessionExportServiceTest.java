@@ -0,0 +1,107 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.repository.SessionExportRow;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+
+public class SessionExportServiceTest {
+  @Mock
+  private SessionRepository sessionRepository;
+
+  @Mock
+  private SessionMapper sessionMapper;
+
+  private SessionExportService sessionExportService;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    sessionExportService = new SessionExportService(sessionRepository, sessionMapper, new ObjectMapper());
+    when(sessionMapper.toDto(any(SessionExportRow.class), anyList())).thenAnswer(invocation -> {
+      SessionExportRow row = invocation.getArgument(0);
+      SessionDto dto = new SessionDto();
+      dto.setId(row.getId());
+      dto.setUsers(invocation.<List<Long>>getArgument(1));
+      return dto;
+    });
+  }
+
+  @Test
+  public void testExportNdjson_FoldsParticipantsIntoTheirSession() throws Exception {
+    // GIVEN
+    Stream<SessionExportRow> rows = Stream.of(row(1L, "Yoga", 2L), row(1L, "Yoga", 3L), row(2L, "Pilates", null));
+    when(sessionRepository.streamExportRows()).thenReturn(rows);
+
+    // WHEN
+    String export = export(SessionExportService.Format.NDJSON);
+
+    // THEN
+    String[] lines = export.split("\n");
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).contains("\"id\":1").contains("\"users\":[2,3]");
+    assertThat(lines[1]).contains("\"id\":2").contains("\"users\":[]");
+  }
+
+  @Test
+  public void testExportCsv_QuotesFieldsWithSeparators() throws Exception {
+    // GIVEN
+    Stream<SessionExportRow> rows = Stream.of(row(1L, "Yoga, \"soft\"", 2L));
+    when(sessionRepository.streamExportRows()).thenReturn(rows);
+
+    // WHEN
+    String export = export(SessionExportService.Format.CSV);
+
+    // THEN
+    assertThat(export.split("\n")[1]).isEqualTo("1,\"Yoga, \"\"soft\"\"\",,0,,0,2");
+  }
+
+  @Test
+  public void testExportCsv_EscapesFormulas() throws Exception {
+    // GIVEN
+    Stream<SessionExportRow> rows = Stream.of(
+        row(1L, "=HYPERLINK(\"http://evil\")", null),
+        row(2L, "@SUM(A1)", null),
+        row(3L, "-1+1", null));
+    when(sessionRepository.streamExportRows()).thenReturn(rows);
+
+    // WHEN
+    String[] lines = export(SessionExportService.Format.CSV).split("\n");
+
+    // THEN
+    assertThat(lines[1]).startsWith("1,\"'=HYPERLINK(\"\"http://evil\"\")\",");
+    assertThat(lines[2]).startsWith("2,'@SUM(A1),");
+    assertThat(lines[3]).startsWith("3,'-1+1,");
+  }
+
+  private String export(SessionExportService.Format format) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sessionExportService.export(format, out);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static SessionExportRow row(Long id, String name, Long userId) {
+    SessionExportRow row = mock(SessionExportRow.class);
+    when(row.getId()).thenReturn(id);
+    when(row.getName()).thenReturn(name);
+    when(row.getUserId()).thenReturn(userId);
+    return row;
+  }
+}
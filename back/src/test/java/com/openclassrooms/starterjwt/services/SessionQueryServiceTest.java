@@ -0,0 +1,150 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+
+public class SessionQueryServiceTest {
+  @Mock
+  private SessionRepository sessionRepository;
+
+  @Mock
+  private ParticipationRepository participationRepository;
+
+  private SessionQueryService sessionQueryService;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    SessionMapper sessionMapper = new SessionMapperImpl();
+    sessionQueryService = new SessionQueryService(sessionRepository, participationRepository, sessionMapper);
+  }
+
+  @Test
+  public void testFindById_GroupsParticipantIds() {
+    // GIVEN
+    SessionSummary summary = summary(1L, new Date());
+    List<SessionParticipant> participants = Arrays.asList(participant(1L, 2L), participant(1L, 3L));
+    when(sessionRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
+    when(participationRepository.findParticipants(Collections.singletonList(1L))).thenReturn(participants);
+
+    // WHEN
+    SessionDto session = sessionQueryService.findById(1L);
+
+    // THEN
+    assertThat(session.getId()).isEqualTo(1L);
+    assertThat(session.getTeacher_id()).isEqualTo(7L);
+    assertThat(session.getUsers()).containsExactly(2L, 3L);
+  }
+
+  @Test
+  public void testFindById_SessionNotFound() {
+    // GIVEN
+    when(sessionRepository.findSummaryById(1L)).thenReturn(Optional.empty());
+
+    // WHEN
+    SessionDto session = sessionQueryService.findById(1L);
+
+    // THEN
+    assertThat(session).isNull();
+    verify(participationRepository, never()).findParticipants(anyList());
+  }
+
+  @Test
+  public void testFindAll_UsesSingleParticipantQuery() {
+    // GIVEN
+    List<SessionSummary> summaries = Arrays.asList(summary(1L, new Date()), summary(2L, new Date()));
+    List<SessionParticipant> participants = Collections.singletonList(participant(2L, 5L));
+    when(sessionRepository.findAllSummaries()).thenReturn(summaries);
+    when(participationRepository.findAllParticipants()).thenReturn(participants);
+
+    // WHEN
+    List<SessionDto> sessions = sessionQueryService.findAll();
+
+    // THEN
+    assertThat(sessions).hasSize(2);
+    assertThat(sessions.get(0).getUsers()).isEmpty();
+    assertThat(sessions.get(1).getUsers()).containsExactly(5L);
+  }
+
+  @Test
+  public void testFindPage_ReturnsCursorOfLastSession() {
+    // GIVEN
+    Date date = new Date(1697356800000L);
+    List<SessionSummary> summaries = new ArrayList<>();
+    summaries.add(summary(4L, date));
+    when(sessionRepository.findFirstPage(eq(null), eq(null), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(summaries, PageRequest.of(0, 1), true));
+
+    // WHEN
+    SessionPageDto page = sessionQueryService.findPage(null, null, null, 1);
+
+    // THEN
+    assertThat(page.getSessions()).hasSize(1);
+    SessionCursor next = SessionCursor.decode(page.getNextCursor());
+    assertThat(next.getDate()).isEqualTo(date);
+    assertThat(next.getId()).isEqualTo(4L);
+  }
+
+  @Test
+  public void testFindPage_AfterCursor_ClampsPageSize() {
+    // GIVEN
+    Date date = new Date();
+    SessionCursor cursor = new SessionCursor(date, 5L);
+    when(sessionRepository.findPageAfter(eq(date), eq(5L), eq(null), eq(null), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(new ArrayList<>()));
+
+    // WHEN
+    SessionPageDto page = sessionQueryService.findPage(cursor, null, null, 1000);
+
+    // THEN
+    // Verify that the requested size never exceeds the configured maximum
+    assertThat(page.getNextCursor()).isNull();
+    verify(sessionRepository).findPageAfter(date, 5L, null, null, PageRequest.of(0, SessionQueryService.MAX_PAGE_SIZE));
+  }
+
+  private SessionSummary summary(Long id, Date date) {
+    SessionSummary summary = mock(SessionSummary.class);
+    when(summary.getId()).thenReturn(id);
+    when(summary.getName()).thenReturn("Session " + id);
+    when(summary.getDate()).thenReturn(date);
+    when(summary.getTeacherId()).thenReturn(7L);
+    return summary;
+  }
+
+  private SessionParticipant participant(Long sessionId, Long userId) {
+    SessionParticipant participant = mock(SessionParticipant.class);
+    when(participant.getSessionId()).thenReturn(sessionId);
+    when(participant.getUserId()).thenReturn(userId);
+    return participant;
+  }
+}
@@ -1,36 +1,43 @@
 package com.openclassrooms.starterjwt.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.EntityNotFoundException;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
+
+import com.openclassrooms.starterjwt.dto.SessionEventDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
-import com.openclassrooms.starterjwt.repository.UserRepository;
 
 public class SessionServiceTest {
   @Mock
   private SessionRepository sessionRepository;
 
   @Mock
-  private UserRepository userRepository;
+  private ApplicationEventPublisher eventPublisher;
 
   @InjectMocks
   private SessionService sessionService;
@@ -50,7 +57,7 @@ public class SessionServiceTest {
     sessionToCreate.setDescription("Description de la session de test");
 
     // Configure the mock to simulate the behavior of sessionRepository.save
-    when(sessionRepository.save(sessionToCreate)).thenReturn(sessionToCreate);
+    when(sessionRepository.saveAndFlush(sessionToCreate)).thenReturn(sessionToCreate);
 
     // WHEN
     Session createdSession = sessionService.create(sessionToCreate);
@@ -61,27 +68,50 @@ public class SessionServiceTest {
     assertThat(createdSession.getName()).isEqualTo("Session de test");
     assertThat(createdSession.getDescription()).isEqualTo("Description de la session de test");
 
-    // Verify that the sessionRepository.save method was called with the session to
+    // Verify that the sessionRepository.saveAndFlush method was called with the session to
     // create
-    verify(sessionRepository).save(sessionToCreate);
+    verify(sessionRepository).saveAndFlush(sessionToCreate);
+    verify(eventPublisher).publishEvent(SessionEventDto.of(SessionEventDto.Type.CREATED, createdSession.getId()));
+  }
+
+  @Test
+  public void testCreateSession_UnknownTeacher_ThrowsBadRequest() {
+    // GIVEN
+    Session sessionToCreate = new Session();
+    when(sessionRepository.saveAndFlush(sessionToCreate)).thenThrow(new DataIntegrityViolationException("fk"));
+
+    // WHEN / THEN
+    assertThatThrownBy(() -> sessionService.create(sessionToCreate)).isInstanceOf(BadRequestException.class);
   }
 
   @Test
   public void testDeleteSession() {
     // GIVEN
     Long sessionIdToDelete = 1L;
+    Session sessionToDelete = new Session();
+    sessionToDelete.setId(sessionIdToDelete);
 
-    // Configure the mock to simulate the behavior of sessionRepository.deleteById
-    doNothing().when(sessionRepository).deleteById(sessionIdToDelete);
+    // Configure the mock to simulate the behavior of sessionRepository.findByIdForUpdate
+    when(sessionRepository.findByIdForUpdate(sessionIdToDelete)).thenReturn(Optional.of(sessionToDelete));
 
     // WHEN
     // Call the delete method with the session ID to delete
     sessionService.delete(sessionIdToDelete);
 
     // THEN
-    // Verify that the sessionRepository.deleteById method was called with the
-    // session ID to delete
-    verify(sessionRepository).deleteById(sessionIdToDelete);
+    // Verify that the locked session was deleted and the event published
+    verify(sessionRepository).delete(sessionToDelete);
+    verify(eventPublisher).publishEvent(SessionEventDto.of(SessionEventDto.Type.DELETED, sessionIdToDelete));
+  }
+
+  @Test
+  public void testDeleteSession_SessionNotFound_ThrowsNotFound() {
+    // GIVEN
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+
+    // WHEN / THEN
+    assertThatThrownBy(() -> sessionService.delete(1L)).isInstanceOf(NotFoundException.class);
+    verify(eventPublisher, never()).publishEvent(any());
   }
 
   @Test
@@ -146,7 +176,8 @@ public class SessionServiceTest {
     sessionToUpdate.setId(sessionId);
     sessionToUpdate.setName("Updated Session");
 
-    when(sessionRepository.save(sessionToUpdate)).thenReturn(sessionToUpdate);
+    when(sessionRepository.findByIdForUpdate(sessionId)).thenReturn(Optional.of(new Session()));
+    when(sessionRepository.saveAndFlush(sessionToUpdate)).thenReturn(sessionToUpdate);
 
     // WHEN
     Session updatedSession = sessionService.update(sessionId, sessionToUpdate);
@@ -155,155 +186,44 @@ public class SessionServiceTest {
     assertThat(updatedSession.getId()).isEqualTo(sessionId);
     assertThat(updatedSession.getName()).isEqualTo("Updated Session");
 
-    // Verify that the sessionRepository.save method was called with the updated
-    // session
-    verify(sessionRepository).save(sessionToUpdate);
-  }
-
-  @Test
-  public void testParticipate_Success() {
-    // GIVEN
-    Long sessionId = 1L;
-    Long userId = 2L;
-
-    Session session = new Session();
-    session.setId(sessionId);
-    session.setUsers(new ArrayList<>());
-
-    User user = new User();
-    user.setId(userId);
-
-    // Configure the mock to simulate finding a session and user by ID
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-
-    // WHEN
-    // Call the participate method with session and user IDs
-    sessionService.participate(sessionId, userId);
-
-    // THEN
-    // Verify that the session has been updated with the added user
-    assertThat(session.getUsers()).contains(user);
-
-    // Verify that the sessionRepository.save method was called with the updated
-    // session
-    verify(sessionRepository).save(session);
-  }
-
-  @Test
-  public void testParticipate_SessionNotFound() {
-    Long sessionId = 1L;
-    Long userId = 2L;
-
-    // Configure the mock to simulate that the session is not found
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
-
-    // Call the participate method with session and user IDs and expect
-    // NotFoundException
-    assertThrows(NotFoundException.class, () -> sessionService.participate(sessionId, userId));
-  }
-
-  @Test
-  public void testParticipate_UserNotFound() {
-    Long sessionId = 1L;
-    Long userId = 2L;
-
-    Session session = new Session();
-    session.setId(sessionId);
-
-    // Configure the mock to simulate that the user is not found
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-    when(userRepository.findById(userId)).thenReturn(Optional.empty());
-
-    // Call the participate method with session and user IDs and expect
-    // NotFoundException
-    assertThrows(NotFoundException.class, () -> sessionService.participate(sessionId, userId));
-  }
-
-  @Test
-  public void testParticipate_UserAlreadyParticipating() {
-    Long sessionId = 1L;
-    Long userId = 2L;
-
-    Session session = new Session();
-    session.setId(sessionId);
-
-    User user = new User();
-    user.setId(userId);
-    List<User> userList = new ArrayList<>();
-    userList.add(user);
-    session.setUsers(userList);
-
-    // Configure the mock to simulate that the user is already participating in the
+    // Verify that the sessionRepository.saveAndFlush method was called with the updated
     // session
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-
-    // Call the participate method with session and user IDs and expect
-    // BadRequestException
-    assertThrows(BadRequestException.class, () -> sessionService.participate(sessionId, userId));
+    verify(sessionRepository).saveAndFlush(sessionToUpdate);
   }
 
   @Test
-  public void testNoLongerParticipate_Success() {
+  public void testUpdateSession_SessionNotFound_ThrowsNotFound() {
     // GIVEN
-    Long sessionId = 1L;
-    Long userId = 2L;
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
-    Session session = new Session();
-    session.setId(sessionId);
-
-    User user = new User();
-    user.setId(userId);
-
-    List<User> userList = new ArrayList<>();
-    userList.add(user);
-
-    session.setUsers(userList);
-
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-
-    // WHEN
-    sessionService.noLongerParticipate(sessionId, userId);
-
-    // THEN
-    // Verify that the user has been removed from the session's user list
-    assertThat(session.getUsers()).doesNotContain(user);
-    verify(sessionRepository).save(session);
+    // WHEN / THEN
+    assertThatThrownBy(() -> sessionService.update(1L, new Session())).isInstanceOf(NotFoundException.class);
+    verify(sessionRepository, never()).saveAndFlush(any());
   }
 
   @Test
-  public void testNoLongerParticipate_SessionNotFound() {
+  public void testUpdateSession_UsersOverCapacity_ThrowsBadRequest() {
     // GIVEN
-    Long sessionId = 1L;
-    Long userId = 2L;
-
-    // Configure the mock to simulate that the session is not found
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+    Session sessionToUpdate = new Session();
+    sessionToUpdate.setCapacity(1);
+    sessionToUpdate.setUsers(Arrays.asList(new User(), new User()));
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Session()));
 
-    // WHEN and THEN
-    // Call the noLongerParticipate method and expect a NotFoundException
-    assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, userId))
-        .isInstanceOf(NotFoundException.class);
+    // WHEN / THEN
+    assertThatThrownBy(() -> sessionService.update(1L, sessionToUpdate)).isInstanceOf(BadRequestException.class);
+    verify(sessionRepository, never()).saveAndFlush(any());
   }
 
   @Test
-  public void testNoLongerParticipate_UserNotParticipating() {
+  public void testUpdateSession_UnknownTeacher_ThrowsBadRequest() {
     // GIVEN
-    Long sessionId = 1L;
-    Long userId = 2L;
-
-    Session session = new Session();
-    session.setId(sessionId);
-    session.setUsers(new ArrayList<>());
-
-    // Configure the mock to simulate finding the session by ID
-    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+    Session sessionToUpdate = new Session();
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Session()));
+    when(sessionRepository.saveAndFlush(sessionToUpdate)).thenThrow(
+        new JpaObjectRetrievalFailureException(new EntityNotFoundException("Unable to find Teacher with id 999")));
 
-    // WHEN and THEN
-    // Call the noLongerParticipate method and expect a BadRequestException
-    assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, userId))
-        .isInstanceOf(BadRequestException.class);
+    // WHEN / THEN
+    assertThatThrownBy(() -> sessionService.update(1L, sessionToUpdate)).isInstanceOf(BadRequestException.class);
+    verify(eventPublisher, never()).publishEvent(any());
   }
-
 }
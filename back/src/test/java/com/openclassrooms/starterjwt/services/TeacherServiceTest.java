@@ -1,8 +1,10 @@
 package com.openclassrooms.starterjwt.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 
 public class TeacherServiceTest {
@@ -80,4 +83,35 @@ public class TeacherServiceTest {
     // THEN
     assertThat(retrivedTeacher).isNotEqualTo(expectedTeacher);
   }
+
+  @Test
+  public void testFindVersion_TeacherNotFound() {
+    // GIVEN
+    CollectionVersion version = mock(CollectionVersion.class);
+    when(version.getTotal()).thenReturn(0L);
+    when(teacherRepository.findVersionById(999L)).thenReturn(version);
+
+    // WHEN / THEN
+    assertThat(teacherService.findVersion(999L)).isNull();
+  }
+
+  @Test
+  public void testFindVersion_ChangesWithUpdatedAt() {
+    // GIVEN
+    CollectionVersion before = mock(CollectionVersion.class);
+    when(before.getTotal()).thenReturn(2L);
+    when(before.getLastModified()).thenReturn(LocalDateTime.of(2023, 10, 1, 12, 0, 0, 1000));
+    CollectionVersion after = mock(CollectionVersion.class);
+    when(after.getTotal()).thenReturn(2L);
+    when(after.getLastModified()).thenReturn(LocalDateTime.of(2023, 10, 1, 12, 0, 0, 2000));
+    when(teacherRepository.findVersion()).thenReturn(before, after);
+
+    // WHEN
+    ResourceVersion first = teacherService.findVersion();
+    ResourceVersion second = teacherService.findVersion();
+
+    // THEN the versions differ even within the same second
+    assertThat(first.getETag()).isNotEqualTo(second.getETag());
+    assertThat(first.getLastModified()).isEqualTo(second.getLastModified());
+  }
 }
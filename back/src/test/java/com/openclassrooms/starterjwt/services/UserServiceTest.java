@@ -14,12 +14,20 @@ import org.mockito.MockitoAnnotations;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.security.jwt.TokenDenylist;
 
 public class UserServiceTest {
 
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private JwtTokenCache jwtTokenCache;
+
+  @Mock
+  private TokenDenylist tokenDenylist;
+
   @InjectMocks
   private UserService userService;
 
@@ -44,6 +52,8 @@ public class UserServiceTest {
     // Verify that the userRepository.deleteById method was called with the user ID
     // to delete
     verify(userRepository).deleteById(userIdToDelete);
+    verify(jwtTokenCache).evictUser(userIdToDelete);
+    verify(tokenDenylist).revokeUser(userIdToDelete);
   }
 
   @Test
@@ -0,0 +1,172 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+
+public class WaitlistServiceTest {
+  @Mock
+  private WaitlistRepository waitlistRepository;
+
+  @Mock
+  private ParticipationRepository participationRepository;
+
+  @Mock
+  private SessionRepository sessionRepository;
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Spy
+  private WaitlistCache waitlistCache;
+
+  @Mock
+  private SessionUsersCache sessionUsersCache;
+
+  @InjectMocks
+  private WaitlistService waitlistService;
+
+  @BeforeEach
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void testJoin_FullSession() {
+    // GIVEN
+    Session session = new Session().setId(1L).setCapacity(1);
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(session));
+    when(userRepository.existsById(2L)).thenReturn(true);
+    when(participationRepository.countBySessionId(1L)).thenReturn(1L);
+
+    // WHEN
+    waitlistService.join(1L, 2L);
+
+    // THEN
+    verify(waitlistRepository).saveAndFlush(new WaitlistEntry().setSessionId(1L).setUserId(2L));
+  }
+
+  @Test
+  public void testJoin_SessionWithFreeSeat() {
+    // GIVEN
+    Session session = new Session().setId(1L).setCapacity(2);
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(session));
+    when(userRepository.existsById(2L)).thenReturn(true);
+    when(participationRepository.countBySessionId(1L)).thenReturn(1L);
+
+    // WHEN and THEN
+    // The user should participate directly instead of waiting
+    assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+    verify(waitlistRepository, never()).saveAndFlush(any(WaitlistEntry.class));
+  }
+
+  @Test
+  public void testJoin_AlreadyParticipating() {
+    // GIVEN
+    Session session = new Session().setId(1L).setCapacity(1);
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(session));
+    when(userRepository.existsById(2L)).thenReturn(true);
+    when(participationRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(true);
+
+    // WHEN and THEN
+    assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+  }
+
+  @Test
+  public void testJoin_SessionNotFound() {
+    // GIVEN
+    when(sessionRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+
+    // WHEN and THEN
+    assertThrows(NotFoundException.class, () -> waitlistService.join(1L, 2L));
+  }
+
+  @Test
+  public void testLeave_NotWaiting() {
+    // GIVEN
+    when(sessionRepository.existsById(1L)).thenReturn(true);
+    when(waitlistRepository.deleteBySessionIdAndUserId(1L, 2L)).thenReturn(0);
+
+    // WHEN and THEN
+    assertThrows(BadRequestException.class, () -> waitlistService.leave(1L, 2L));
+  }
+
+  @Test
+  public void testFindQueue_LoadsOnceThenServesFromCache() {
+    // GIVEN
+    when(sessionRepository.existsById(1L)).thenReturn(true);
+    when(waitlistRepository.findUserIdsBySessionId(1L)).thenReturn(Arrays.asList(3L, 2L));
+
+    // WHEN
+    List<Long> first = waitlistService.findQueue(1L);
+    List<Long> second = waitlistService.findQueue(1L);
+
+    // THEN
+    assertThat(first).containsExactly(3L, 2L);
+    assertThat(second).containsExactly(3L, 2L);
+    verify(waitlistRepository).findUserIdsBySessionId(1L);
+  }
+
+  @Test
+  public void testPromote_FillsFreedSeatsInOrder() {
+    // GIVEN
+    Session session = new Session().setId(1L).setCapacity(3);
+    List<WaitlistEntry> head = Arrays.asList(
+        new WaitlistEntry().setId(10L).setSessionId(1L).setUserId(4L),
+        new WaitlistEntry().setId(11L).setSessionId(1L).setUserId(5L));
+    when(waitlistRepository.existsBySessionId(1L)).thenReturn(true);
+    when(participationRepository.countBySessionId(1L)).thenReturn(1L);
+    when(waitlistRepository.findBySessionIdOrderByIdAsc(1L, PageRequest.of(0, 2))).thenReturn(head);
+
+    // WHEN
+    List<Long> promoted = waitlistService.promote(session);
+
+    // THEN
+    assertThat(promoted).containsExactly(4L, 5L);
+    verify(participationRepository).saveAll(Arrays.asList(new Participation(1L, 4L), new Participation(1L, 5L)));
+    verify(waitlistRepository).deleteAllInBatch(head);
+    verify(sessionUsersCache).evictAfterCommit(1L);
+  }
+
+  @Test
+  public void testPromote_EmptyWaitlist() {
+    // GIVEN
+    Session session = new Session().setId(1L).setCapacity(3);
+    when(waitlistRepository.existsBySessionId(1L)).thenReturn(false);
+
+    // WHEN
+    List<Long> promoted = waitlistService.promote(session);
+
+    // THEN
+    // Nothing is read from PARTICIPATE when nobody is waiting
+    assertThat(promoted).isEmpty();
+    verify(participationRepository, never()).countBySessionId(1L);
+    verify(participationRepository, never()).saveAll(anyList());
+  }
+}
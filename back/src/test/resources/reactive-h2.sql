@@ -0,0 +1,39 @@
+DROP TABLE IF EXISTS PARTICIPATE;
+DROP TABLE IF EXISTS SESSIONS;
+DROP TABLE IF EXISTS TEACHERS;
+
+CREATE TABLE TEACHERS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  last_name VARCHAR(40),
+  first_name VARCHAR(40),
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE TABLE SESSIONS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  name VARCHAR(50),
+  description VARCHAR(2000),
+  date TIMESTAMP,
+  teacher_id INT,
+  capacity INT,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE TABLE PARTICIPATE (
+  user_id INT,
+  session_id INT
+);
+
+INSERT INTO TEACHERS (first_name, last_name)
+VALUES ('Margot', 'DELAHAYE'),
+       ('Hélène', 'THIERCELIN');
+
+INSERT INTO SESSIONS (name, description, date, teacher_id)
+VALUES ('Morning flow', 'Gentle wake up', '2024-01-15 08:00:00', 1),
+       ('Evening stretch', 'Slow and deep', '2024-01-15 19:00:00', 2),
+       ('Weekend retreat', 'Full day', '2024-01-20 09:00:00', 1);
+
+INSERT INTO PARTICIPATE (session_id, user_id)
+VALUES (1, 3), (1, 2), (3, 2);
@@ -3,7 +3,7 @@ CREATE TABLE `TEACHERS` (
   `last_name` VARCHAR(40),
   `first_name` VARCHAR(40),
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
 );
 
 CREATE TABLE `SESSIONS` (
@@ -12,8 +12,9 @@ CREATE TABLE `SESSIONS` (
   `description` VARCHAR(2000),
   `date` TIMESTAMP,
   `teacher_id` int,
+  `capacity` INT,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
 );
 
 CREATE TABLE `USERS` (
@@ -32,9 +33,42 @@ CREATE TABLE `PARTICIPATE` (
   `session_id` INT
 );
 
+CREATE TABLE `WAITLIST` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE `REVOKED_TOKENS` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `token_id` VARCHAR(36),
+  `user_id` INT,
+  `revoked_at` DATETIME,
+  `expires_at` DATETIME
+);
+
+CREATE TABLE `OUTBOX_EVENTS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `type` VARCHAR(40) NOT NULL,
+  `session_id` INT,
+  `user_id` INT,
+  `created_at` DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6)
+);
+
 ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
+ALTER TABLE `PARTICIPATE` ADD CONSTRAINT `UK_PARTICIPATE_SESSION_USER` UNIQUE (`session_id`, `user_id`);
+
+CREATE INDEX `IDX_SESSIONS_DATE_ID` ON `SESSIONS` (`date`, `id`);
+
+ALTER TABLE `WAITLIST` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE;
+ALTER TABLE `WAITLIST` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`) ON DELETE CASCADE;
+ALTER TABLE `WAITLIST` ADD CONSTRAINT `UK_WAITLIST_SESSION_USER` UNIQUE (`session_id`, `user_id`);
+CREATE INDEX `IDX_WAITLIST_SESSION_ID` ON `WAITLIST` (`session_id`, `id`);
+
+CREATE INDEX `IDX_REVOKED_TOKENS_EXPIRES_AT` ON `REVOKED_TOKENS` (`expires_at`);
 
 INSERT INTO TEACHERS (first_name, last_name)
 VALUES ('Margot', 'DELAHAYE'),